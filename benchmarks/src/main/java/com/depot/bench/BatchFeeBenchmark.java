@@ -0,0 +1,108 @@
+package com.depot.bench;
+
+import com.depot.pojo.ParcelBatch;
+import com.depot.pojo.Worker;
+import com.depot.pojo.common.Dimension;
+import com.depot.pojo.common.Parcel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Worker's batch fee and size class APIs against the per-parcel calls. The *Vector methods fork
+// with the Vector API module, the *Scalar ones without it, so both batch kernels are measured
+// on the same data. fromParcels includes gathering the Parcel objects into a batch.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Ddepot.log.file=target/jmh-depot.log", "-Ddepot.log.overflow=DROP"})
+public class BatchFeeBenchmark {
+    @Param({"1000000", "10000000"})
+    public int parcels;
+
+    private Worker worker;
+    private Parcel[] parcelArray;
+    private ParcelBatch batch;
+    private float[] fees;
+    private int[] sizeClasses;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        SplittableRandom random = new SplittableRandom(42);
+        worker = new Worker();
+        parcelArray = new Parcel[parcels];
+        for (int i = 0; i < parcels; i++) {
+            parcelArray[i] = new Parcel(DepotGenerator.parcelId(i), random.nextInt(60),
+                (float) random.nextDouble(0.1, 50),
+                new Dimension(random.nextInt(1, 40), random.nextInt(1, 40), random.nextInt(1, 40)));
+        }
+        batch = ParcelBatch.of(parcelArray);
+        fees = new float[parcels];
+        sizeClasses = new int[parcels];
+    }
+
+    @Benchmark
+    public float[] perParcelFees() {
+        for (int i = 0; i < parcelArray.length; i++) {
+            fees[i] = worker.calculateFee(parcelArray[i]);
+        }
+        return fees;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Ddepot.log.file=target/jmh-depot.log", "-Ddepot.log.overflow=DROP",
+        "--add-modules=jdk.incubator.vector"})
+    public float[] batchFeesVector() {
+        worker.calculateFees(batch, fees);
+        return fees;
+    }
+
+    @Benchmark
+    public float[] batchFeesScalar() {
+        worker.calculateFees(batch, fees);
+        return fees;
+    }
+
+    @Benchmark
+    public float[] batchFeesFromParcels() {
+        return worker.calculateFees(parcelArray);
+    }
+
+    @Benchmark
+    public int perParcelClassify() {
+        int large = 0;
+        for (Parcel parcel : parcelArray) {
+            if (worker.classifyParcel(parcel) == Worker.sizeClassName(2)) {
+                large++;
+            }
+        }
+        return large;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Ddepot.log.file=target/jmh-depot.log", "-Ddepot.log.overflow=DROP",
+        "--add-modules=jdk.incubator.vector"})
+    public int[] batchClassifyVector() {
+        worker.classifyParcels(batch, sizeClasses);
+        return sizeClasses;
+    }
+
+    @Benchmark
+    public int[] batchClassifyScalar() {
+        worker.classifyParcels(batch, sizeClasses);
+        return sizeClasses;
+    }
+}
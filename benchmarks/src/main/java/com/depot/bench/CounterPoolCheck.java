@@ -0,0 +1,192 @@
+package com.depot.bench;
+
+import com.depot.pojo.CounterPool;
+import com.depot.pojo.CounterStats;
+import com.depot.pojo.Manager;
+import com.depot.pojo.MutationJournal;
+import com.depot.pojo.common.Customer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+// Check of CounterPool, not a benchmark: draining the queue with 1, 2, 4 and 8 counters must
+// process the same parcels and charge the same fees as serving it serially. Then counters serve
+// a journaled depot while another thread advances days, assigns parcels, adds customers and
+// compacts the journal, and the state recovered from the journal must equal the live one.
+// Readers then snapshot and iterate the queue, as the GUI does, while counters serve it and
+// customers join. Last, a counter failure (a closed journal) must reach the caller of processAll.
+// e.g. java -cp benchmarks/target/benchmarks.jar com.depot.bench.CounterPoolCheck 120000
+public class CounterPoolCheck {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int parcels = args.length > 0 ? Integer.parseInt(args[0]) : 120000;
+        DepotGenerator data = DepotGenerator.generate(parcels, 3);
+
+        Manager serial = load(data);
+        long start = System.nanoTime();
+        while (serial.getCustomerQueue().getHead() != null) {
+            serial.processNextCustomer();
+        }
+        System.out.printf("serial: %,d charges in %.0f ms%n", serial.getLedger().getChargeCount(),
+            (System.nanoTime() - start) / 1e6);
+
+        for (int counters : new int[] {1, 2, 4, 8}) {
+            Manager manager = load(data);
+            CounterPool pool = new CounterPool(manager, counters);
+            start = System.nanoTime();
+            long served = pool.processAll();
+            System.out.printf("%d counters: %,d customers in %.0f ms%n", counters, served,
+                (System.nanoTime() - start) / 1e6);
+            check(manager.getCustomerQueue().getSize() == 0, "queue not drained");
+            check(sameCharges(manager, serial), counters + " counters: " + state(manager)
+                + ", serially " + state(serial));
+            if (counters == 4) {
+                for (CounterStats stats : pool.getStats()) {
+                    System.out.println(stats);
+                }
+            }
+        }
+
+        Path directory = Files.createTempDirectory("depot-counter-check");
+        Path customerFile = directory.resolve("Custs.csv");
+        Path parcelFile = directory.resolve("Parcels.csv");
+        try {
+            checkRecovery(data, directory.resolve("journal"), customerFile, parcelFile);
+            checkReaders(data, customerFile);
+            checkFailure(data, directory.resolve("failing"));
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static void checkRecovery(DepotGenerator data, Path journal, Path customerFile, Path parcelFile)
+            throws IOException, InterruptedException {
+        Manager manager = load(data);
+        manager.enableJournal(journal, MutationJournal.Durability.NONE);
+        int customers = manager.getCustomerQueue().getSize();
+        CounterPool pool = new CounterPool(manager, 4);
+        pool.start();
+        SplittableRandom random = new SplittableRandom(9);
+        for (int i = 0; i < 2000; i++) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    manager.advanceDay();
+                    break;
+                case 1:
+                    // Customers still queued get the parcel, served ones are simply not found
+                    manager.addNewParcel(String.format("Z%07d", i), 1, 2, 3, 4, 5,
+                        String.valueOf(1 + random.nextInt(customers)), parcelFile.toString());
+                    break;
+                case 2: {
+                    String parcelId = DepotGenerator.parcelId(random.nextInt(data.getParcelCount()));
+                    manager.addNewCustomer("Walk-in", new String[] {parcelId}, customerFile.toString());
+                    break;
+                }
+                default:
+                    if (i % 200 == 3) {
+                        manager.compactJournal();
+                    }
+            }
+        }
+        while (manager.getCustomerQueue().getHead() != null) {
+            Thread.sleep(5);
+        }
+        pool.stop();
+        manager.getJournal().flush();
+        String live = state(manager);
+        manager.disableJournal();
+
+        Manager recovered = new Manager();
+        recovered.enableJournal(journal, MutationJournal.Durability.NONE);
+        String replayed = state(recovered);
+        boolean same = sameCharges(recovered, manager)
+            && recovered.getClock().today() == manager.getClock().today()
+            && recovered.getParcelMap().size() == manager.getParcelMap().size();
+        recovered.disableJournal();
+        check(same, "recovered " + replayed + ", live " + live);
+        System.out.println("4 counters with concurrent changes: journal recovers " + live);
+    }
+
+    // Queue order is sequence number order, since customers only ever join at the tail
+    private static void checkReaders(DepotGenerator data, Path customerFile) throws InterruptedException {
+        Manager manager = load(data);
+        CounterPool pool = new CounterPool(manager, 4);
+        pool.start();
+        Thread joining = new Thread(() -> {
+            for (int i = 0; i < 20000; i++) {
+                manager.addNewCustomer("Walk-in", new String[] {DepotGenerator.parcelId(i)}, customerFile.toString());
+            }
+        }, "joining");
+        joining.start();
+        long reads = 0;
+        while (joining.isAlive() || manager.getCustomerQueue().getHead() != null) {
+            List<Customer> snapshot = manager.getCustomerQueue().snapshot();
+            check(inOrder(snapshot), "snapshot out of queue order");
+            check(inOrder(new ArrayList<>(manager.getCustomerQueue().getCustomers())), "view out of queue order");
+            reads++;
+        }
+        joining.join();
+        pool.stop();
+        System.out.printf("Queue read %,d times while 4 counters served and 20,000 customers joined%n", reads);
+    }
+
+    private static boolean inOrder(List<Customer> customers) {
+        for (int i = 1; i < customers.size(); i++) {
+            if (customers.get(i) == null || customers.get(i).getSequenceNum() <= customers.get(i - 1).getSequenceNum()) {
+                return false;
+            }
+        }
+        return customers.isEmpty() || customers.get(0) != null;
+    }
+
+    private static void checkFailure(DepotGenerator data, Path journal) throws IOException {
+        Manager manager = load(data);
+        manager.enableJournal(journal, MutationJournal.Durability.NONE);
+        manager.getJournal().close();
+        try {
+            new CounterPool(manager, 4).processAll();
+        } catch (IllegalStateException e) {
+            System.out.println("Failing counters: processAll throws \"" + e.getMessage() + "\"");
+            return;
+        }
+        throw new IllegalStateException("processAll returned although every counter failed");
+    }
+
+    private static Manager load(DepotGenerator data) {
+        Manager manager = new Manager();
+        manager.initSystemParallel(data.getCustomerFile().toString(), data.getParcelFile().toString());
+        return manager;
+    }
+
+    // Counters record charges in a different order, so the totals may differ in the last bits
+    private static boolean sameCharges(Manager manager, Manager expected) {
+        double total = manager.getLedger().getTotal();
+        double expectedTotal = expected.getLedger().getTotal();
+        return manager.getLedger().getChargeCount() == expected.getLedger().getChargeCount()
+            && Math.abs(total - expectedTotal) <= 1e-9 * Math.abs(expectedTotal)
+            && new TreeSet<>(manager.getProcessedParcels()).equals(new TreeSet<>(expected.getProcessedParcels()));
+    }
+
+    private static String state(Manager manager) {
+        return String.format("%,d queued, %,d parcels, %,d processed, %,d charges totalling %.2f",
+            manager.getCustomerQueue().getSize(), manager.getParcelMap().size(),
+            manager.getProcessedParcels().size(), manager.getLedger().getChargeCount(),
+            manager.getLedger().getTotal());
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.depot.bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+// Writes synthetic Custs.csv / Parcels.csv pairs: parcelCount parcels with IDs X0000000...,
+// and one customer per fanout parcels. Output is deterministic for a given size and fan-out
+// and cached under java.io.tmpdir so forks and reruns share it.
+public class DepotGenerator {
+    private static final long SEED = 0x5EEDL;
+    private static final String[] FIRST_NAMES = {
+        "Andrew", "Ann", "Blair", "Bob", "Chris", "Dave", "Fiona", "Gillian", "Harry", "Helen",
+        "Jack", "Jo", "Joe", "John", "Judy", "Keith", "Lily", "Lucy", "Mary", "Pamela"
+    };
+    private static final String[] LAST_NAMES = {
+        "Robertson", "Jones", "Foster", "Dawson", "Smith", "Jackson", "Hunter", "Murray",
+        "Thoms", "Hamilton", "Johnston", "Webster", "Houston", "Hill", "Woods", "Brown"
+    };
+
+    private final Path customerFile;
+    private final Path parcelFile;
+    private final int parcelCount;
+    private final int fanout;
+
+    private DepotGenerator(Path directory, int parcelCount, int fanout) {
+        this.customerFile = directory.resolve("Custs.csv");
+        this.parcelFile = directory.resolve("Parcels.csv");
+        this.parcelCount = parcelCount;
+        this.fanout = fanout;
+    }
+
+    public static DepotGenerator generate(int parcelCount, int fanout) throws IOException {
+        if (parcelCount <= 0 || fanout <= 0) {
+            throw new IllegalArgumentException("parcelCount and fanout must be positive");
+        }
+        Path directory = Paths.get(System.getProperty("java.io.tmpdir"), "depot-bench",
+            parcelCount + "-" + fanout);
+        DepotGenerator generator = new DepotGenerator(directory, parcelCount, fanout);
+        if (!Files.exists(generator.customerFile) || !Files.exists(generator.parcelFile)) {
+            Files.createDirectories(directory);
+            generator.write();
+        }
+        return generator;
+    }
+
+    public static String parcelId(int index) {
+        return String.format("X%07d", index);
+    }
+
+    public Path getCustomerFile() { return customerFile; }
+    public Path getParcelFile() { return parcelFile; }
+    public int getParcelCount() { return parcelCount; }
+    public int getCustomerCount() { return (parcelCount + fanout - 1) / fanout; }
+
+    private void write() throws IOException {
+        SplittableRandom random = new SplittableRandom(SEED);
+        Path parcelTemp = parcelFile.resolveSibling("Parcels.csv.tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(parcelTemp, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < parcelCount; i++) {
+                writer.write(parcelId(i));
+                writer.write(',');
+                writer.write(Integer.toString(random.nextInt(1, 60)));
+                writer.write(',');
+                writer.write(Integer.toString(random.nextInt(1, 30)));
+                for (int d = 0; d < 3; d++) {
+                    writer.write(',');
+                    writer.write(Integer.toString(random.nextInt(1, 40)));
+                }
+                writer.write('\n');
+            }
+        }
+
+        // Customers pick up parcels in a shuffled order so queue processing hits the map randomly
+        int[] order = new int[parcelCount];
+        for (int i = 0; i < parcelCount; i++) {
+            order[i] = i;
+        }
+        for (int i = parcelCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        Path customerTemp = customerFile.resolveSibling("Custs.csv.tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(customerTemp, StandardCharsets.UTF_8)) {
+            for (int start = 0; start < parcelCount; start += fanout) {
+                writer.write(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+                writer.write(' ');
+                writer.write(LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                writer.write(',');
+                for (int i = start; i < Math.min(start + fanout, parcelCount); i++) {
+                    if (i > start) {
+                        writer.write(';');
+                    }
+                    writer.write(parcelId(order[i]));
+                }
+                writer.write('\n');
+            }
+        }
+        Files.move(parcelTemp, parcelFile);
+        Files.move(customerTemp, customerFile);
+    }
+}
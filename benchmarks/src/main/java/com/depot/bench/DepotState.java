@@ -0,0 +1,52 @@
+package com.depot.bench;
+
+import com.depot.pojo.Manager;
+import com.depot.pojo.common.Parcel;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+// A depot loaded once per trial from a generated data set, shared by the read-mostly benchmarks
+@State(Scope.Benchmark)
+public class DepotState {
+    static final int PROBES = 1 << 16;
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int parcels;
+
+    @Param({"1", "4"})
+    public int fanout;
+
+    // ParcelMap backing store, see depot.parcelStore
+    @Param({"hash", "columnar"})
+    public String store;
+
+    public DepotGenerator data;
+    public Manager manager;
+    public Parcel[] parcelArray;
+    // Random lookup keys: hits are existing IDs, misses have the right shape but no parcel
+    public String[] hits;
+    public String[] misses;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        data = DepotGenerator.generate(parcels, fanout);
+        System.setProperty("depot.parcelStore", store);
+        manager = new Manager();
+        manager.initSystem(data.getCustomerFile().toString(), data.getParcelFile().toString());
+        parcelArray = manager.getParcelMap().getAllParcels().values().toArray(new Parcel[0]);
+
+        SplittableRandom random = new SplittableRandom(42);
+        hits = new String[PROBES];
+        misses = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            hits[i] = DepotGenerator.parcelId(random.nextInt(parcels));
+            misses[i] = DepotGenerator.parcelId(parcels + random.nextInt(parcels));
+        }
+    }
+}
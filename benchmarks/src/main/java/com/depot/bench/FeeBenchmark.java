@@ -0,0 +1,55 @@
+package com.depot.bench;
+
+import com.depot.pojo.Manager;
+import com.depot.pojo.Worker;
+import com.depot.pojo.common.Customer;
+import com.depot.pojo.common.Parcel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Fee estimation: Worker.calculateFee over every parcel, the same total as a column scan, and the per-customer estimate the
+// customer table computes (parcel lookups plus fees) over the whole queue
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Ddepot.log.file=target/jmh-depot.log", "-Ddepot.log.overflow=DROP"})
+public class FeeBenchmark {
+    @Benchmark
+    public float calculateAllFees(DepotState depot) {
+        Worker worker = depot.manager.getWorker();
+        float total = 0;
+        for (Parcel parcel : depot.parcelArray) {
+            total += worker.calculateFee(parcel);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double scanAllFees(DepotState depot) {
+        return depot.manager.getWorker().calculateTotalFee(depot.manager.getParcelMap());
+    }
+
+    @Benchmark
+    public float estimateCustomerFees(DepotState depot) {
+        Manager manager = depot.manager;
+        Worker worker = manager.getWorker();
+        float total = 0;
+        for (Customer customer : manager.getCustomerQueue().getCustomers()) {
+            for (int i = 0; i < customer.getParcelCount(); i++) {
+                Parcel parcel = manager.getParcelMap().getParcel(customer.getParcelCode(i));
+                if (parcel != null) {
+                    total += worker.calculateFee(parcel);
+                }
+            }
+        }
+        return total;
+    }
+}
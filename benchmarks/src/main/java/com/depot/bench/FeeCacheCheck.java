@@ -0,0 +1,121 @@
+package com.depot.bench;
+
+import com.depot.gui.model.DepotModel;
+import com.depot.pojo.Manager;
+import com.depot.pojo.common.Customer;
+import com.depot.pojo.common.Parcel;
+
+import javax.swing.table.TableModel;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Check of the customer table's cached fee estimates, not a benchmark: the depot is changed at
+// random (parcels collected, added, assigned to queued customers, customers served, days
+// advanced) while rows are rendered, and every shown estimate must match a fresh computation
+// from the customer's parcels. Starts with the case that used to go stale: a new parcel
+// assigned to a customer whose estimate is already cached.
+// e.g. java -cp benchmarks/target/benchmarks.jar com.depot.bench.FeeCacheCheck 20000 20000
+public class FeeCacheCheck {
+    private static final int FEE_COLUMN = 3;
+
+    public static void main(String[] args) throws IOException {
+        int parcels = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int changes = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+        DepotGenerator data = DepotGenerator.generate(parcels, 4);
+        DepotModel model = new DepotModel();
+        Manager manager = model.getManager();
+        manager.initSystemParallel(data.getCustomerFile().toString(), data.getParcelFile().toString());
+        // Added parcels are appended here, not to the shared generated data set
+        Path parcelFile = Files.createTempFile("depot-fee-check", ".csv");
+        try {
+            model.updateTables();
+            TableModel table = model.getCustomerTableModel();
+            verify(manager, table);
+
+            Customer head = manager.getCustomerQueue().getHead();
+            manager.addNewParcel("Y0000000", 3, 2.5f, 10, 20, 30,
+                String.valueOf(head.getSequenceNum()), parcelFile.toString());
+            model.updateTables();
+            verify(manager, table);
+            System.out.println("Parcel assigned to a cached customer: estimate updated");
+
+            SplittableRandom random = new SplittableRandom(42);
+            int added = 1;
+            for (int i = 1; i <= changes; i++) {
+                int kind = random.nextInt(100);
+                if (kind < 30) {
+                    manager.updateParcelStatus(DepotGenerator.parcelId(random.nextInt(parcels)), true);
+                } else if (kind < 50) {
+                    addParcel(manager, random, added++, null, parcelFile);
+                } else if (kind < 80) {
+                    List<Customer> customers = manager.getCustomerQueue().snapshot();
+                    if (!customers.isEmpty()) {
+                        Customer customer = customers.get(random.nextInt(customers.size()));
+                        addParcel(manager, random, added++, String.valueOf(customer.getSequenceNum()), parcelFile);
+                    }
+                } else if (kind < 98) {
+                    if (manager.getCustomerQueue().getHead() != null) {
+                        manager.processNextCustomer();
+                    }
+                } else {
+                    manager.advanceDay();
+                }
+                // Refresh and render a few rows now and then so estimates are cached at every point
+                if (i % 10 == 0) {
+                    model.updateTables();
+                    for (int row = 0; row < 40 && table.getRowCount() > 0; row++) {
+                        table.getValueAt(random.nextInt(table.getRowCount()), FEE_COLUMN);
+                    }
+                }
+                if (i % 1000 == 0) {
+                    verify(manager, table);
+                }
+            }
+            verify(manager, table);
+            System.out.printf("%,d changes: every estimate matches a fresh computation%n", changes);
+        } finally {
+            Files.deleteIfExists(parcelFile);
+        }
+    }
+
+    private static void addParcel(Manager manager, SplittableRandom random, int index, String customerId, Path file) {
+        manager.addNewParcel(String.format("Y%07d", index), random.nextInt(60), 1 + random.nextInt(50),
+            1 + random.nextInt(40), 1 + random.nextInt(40), 1 + random.nextInt(40), customerId, file.toString());
+    }
+
+    // Rows are in queue order, as the table shows them after updateTables
+    private static void verify(Manager manager, TableModel table) {
+        List<Customer> customers = manager.getCustomerQueue().snapshot();
+        check(table.getRowCount() == customers.size(),
+            "table shows " + table.getRowCount() + " of " + customers.size() + " customers");
+        for (int row = 0; row < customers.size(); row++) {
+            Customer customer = customers.get(row);
+            String expected = String.format("%.2f", fee(manager, customer));
+            Object shown = table.getValueAt(row, FEE_COLUMN);
+            check(expected.equals(shown), "customer " + customer.getSequenceNum() + " shows " + shown
+                + ", expected " + expected);
+        }
+    }
+
+    // Summed in parcel order, like the cache
+    private static float fee(Manager manager, Customer customer) {
+        float total = 0;
+        for (int i = 0; i < customer.getParcelCount(); i++) {
+            Parcel parcel = manager.getParcelMap().getParcel(customer.getParcelCode(i));
+            if (parcel != null) {
+                total += manager.getWorker().calculateFee(parcel);
+            }
+        }
+        return total;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.depot.bench;
+
+import com.depot.pojo.Manager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Cold loads of a generated depot: sequential initSystem vs. the fork-join chunked importer
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Ddepot.log.file=target/jmh-depot.log", "-Ddepot.log.overflow=DROP"})
+public class LoadBenchmark {
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int parcels;
+
+    @Param({"1", "4"})
+    public int fanout;
+
+    private String customerFile;
+    private String parcelFile;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        DepotGenerator data = DepotGenerator.generate(parcels, fanout);
+        customerFile = data.getCustomerFile().toString();
+        parcelFile = data.getParcelFile().toString();
+    }
+
+    @Benchmark
+    public Manager initSystem() {
+        Manager manager = new Manager();
+        manager.initSystem(customerFile, parcelFile);
+        return manager;
+    }
+
+    @Benchmark
+    public Manager initSystemParallel() {
+        Manager manager = new Manager();
+        manager.initSystemParallel(customerFile, parcelFile);
+        return manager;
+    }
+}
@@ -0,0 +1,144 @@
+package com.depot.bench;
+
+import com.depot.http.DepotServer;
+import com.depot.pojo.Manager;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Drives the HTTP API (see DepotServer) with many requests in flight at once and reports
+// throughput, latency percentiles and response classes. Without a URL it generates a depot,
+// serves it in-process on a free port and runs against that. The mix is mostly parcel
+// lookups (hits and misses), with some enqueues, queue processing and long-stored reports.
+// e.g. java -cp benchmarks/target/benchmarks.jar com.depot.bench.LoadGenerator 100000 200000 1000
+public class LoadGenerator {
+    private final HttpClient client;
+    private final String baseUrl;
+    private final int parcels;
+
+    LoadGenerator(HttpClient client, String baseUrl, int parcels) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.parcels = parcels;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int parcels = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        String url = args.length > 3 ? args[3] : null;
+
+        DepotServer server = null;
+        Path customerFile = null;
+        if (url == null) {
+            DepotGenerator data = DepotGenerator.generate(parcels, 4);
+            Manager manager = new Manager();
+            manager.initSystemParallel(data.getCustomerFile().toString(), data.getParcelFile().toString());
+            // New customers are appended here, not to the shared generated data set
+            customerFile = Files.createTempFile("depot-load", ".csv");
+            server = new DepotServer(manager,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), customerFile.toString());
+            server.start();
+            url = "http://localhost:" + server.getPort();
+            System.out.printf("Serving %,d parcels on %s with %s%n", parcels, url,
+                server.usesVirtualThreads() ? "virtual threads" : "a thread pool");
+        }
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+            LoadGenerator generator = new LoadGenerator(client, url, parcels);
+            generator.run(Math.min(requests / 10, 10000), concurrency, false);
+            generator.run(requests, concurrency, true);
+        } finally {
+            if (server != null) {
+                server.stop();
+                Files.deleteIfExists(customerFile);
+            }
+        }
+    }
+
+    // Sends the requests keeping at most concurrency in flight; prints the figures when report
+    void run(int requests, int concurrency, boolean report) throws InterruptedException {
+        long[] latencies = new long[requests];
+        // 2xx, 3xx, 4xx, 5xx, failed
+        AtomicLongArray outcomes = new AtomicLongArray(5);
+        Semaphore inFlight = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(requests);
+        SplittableRandom random = new SplittableRandom(42);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            int index = i;
+            HttpRequest request = nextRequest(random);
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    latencies[index] = System.nanoTime() - sent;
+                    if (failure != null) {
+                        outcomes.incrementAndGet(4);
+                    } else {
+                        outcomes.incrementAndGet(Math.min(3, Math.max(0, response.statusCode() / 100 - 2)));
+                    }
+                    inFlight.release();
+                    done.countDown();
+                });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        if (!report) {
+            return;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%,d requests, %d in flight: %,.0f requests/s%n",
+            requests, concurrency, requests * 1e9 / elapsed);
+        System.out.printf("latency p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+            percentile(latencies, 50) / 1e6, percentile(latencies, 90) / 1e6,
+            percentile(latencies, 99) / 1e6, percentile(latencies, 99.9) / 1e6,
+            latencies[requests - 1] / 1e6);
+        System.out.printf("2xx %,d, 3xx %,d, 4xx %,d, 5xx %,d, failed %,d%n",
+            outcomes.get(0), outcomes.get(1), outcomes.get(2), outcomes.get(3), outcomes.get(4));
+    }
+
+    // 90% lookups (one in ten a miss), 4% enqueues, 4% queue processing, 2% reports
+    private HttpRequest nextRequest(SplittableRandom random) {
+        int kind = random.nextInt(100);
+        if (kind < 90) {
+            int index = kind < 9 ? parcels + random.nextInt(parcels) : random.nextInt(parcels);
+            return get("/parcels/" + DepotGenerator.parcelId(index));
+        } else if (kind < 94) {
+            return post("/customers?name=Kiosk&parcels=" + DepotGenerator.parcelId(random.nextInt(parcels)));
+        } else if (kind < 98) {
+            return post("/queue/next");
+        }
+        return get("/reports/long-stored?days=" + random.nextInt(1, 30) + "&limit=10");
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest post(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(sorted.length * percentile / 100.0);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+}
@@ -0,0 +1,43 @@
+package com.depot.bench;
+
+import com.depot.pojo.Log;
+import com.depot.pojo.LogEventType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Producer-side cost of Log.addEvent with 1, 4 and 16 threads logging at once. Blocking
+// overflow, so a saturated writer thread shows up as back-pressure rather than dropped events.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Ddepot.log.file=target/jmh-depot.log", "-Ddepot.log.overflow=BLOCK"})
+public class LogContentionBenchmark {
+    private static final String PARCEL_ID = "X0000001";
+
+    @Benchmark
+    @Threads(1)
+    public void addEvent1() {
+        Log.getInstance().addParcelEvent(LogEventType.PARCEL_SEARCHED, PARCEL_ID);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void addEvent4() {
+        Log.getInstance().addParcelEvent(LogEventType.PARCEL_SEARCHED, PARCEL_ID);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void addEvent16() {
+        Log.getInstance().addParcelEvent(LogEventType.PARCEL_SEARCHED, PARCEL_ID);
+    }
+}
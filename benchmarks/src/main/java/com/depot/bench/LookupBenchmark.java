@@ -0,0 +1,62 @@
+package com.depot.bench;
+
+import com.depot.pojo.common.Customer;
+import com.depot.pojo.common.Parcel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ParcelMap.getParcel hits and misses, Manager.searchParcelById (lookup plus log event) and
+// the point-in-time snapshots of the customer queue and parcel map that table refreshes use
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Ddepot.log.file=target/jmh-depot.log", "-Ddepot.log.overflow=DROP"})
+public class LookupBenchmark {
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int advance() {
+            next = (next + 1) & (DepotState.PROBES - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public Parcel getParcelHit(DepotState depot, Cursor cursor) {
+        return depot.manager.getParcelMap().getParcel(depot.hits[cursor.advance()]);
+    }
+
+    @Benchmark
+    public Parcel getParcelMiss(DepotState depot, Cursor cursor) {
+        return depot.manager.getParcelMap().getParcel(depot.misses[cursor.advance()]);
+    }
+
+    @Benchmark
+    public Parcel searchParcelById(DepotState depot, Cursor cursor) {
+        return depot.manager.searchParcelById(depot.hits[cursor.advance()]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Customer> customerQueueSnapshot(DepotState depot) {
+        return depot.manager.getCustomerQueue().snapshot();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Parcel> parcelSnapshot(DepotState depot) {
+        return depot.manager.getParcelMap().snapshot();
+    }
+}
@@ -0,0 +1,123 @@
+package com.depot.bench;
+
+import com.depot.pojo.Manager;
+import com.depot.pojo.common.Customer;
+import com.depot.pojo.common.Dimension;
+import com.depot.pojo.common.Parcel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+// Check of Manager's parcel owner index, not a benchmark: customers are added, served and
+// deleted, and parcels added, collected and assigned at random over a small set of IDs, so
+// parcels are often shared and often missing. Owners and dangling references must always match
+// a brute-force scan of the queue, also after a snapshot round trip. The parcel store follows
+// -Ddepot.parcelStore as usual.
+// e.g. java -cp benchmarks/target/benchmarks.jar com.depot.bench.OwnerIndexCheck 3000 20000
+public class OwnerIndexCheck {
+    public static void main(String[] args) throws IOException {
+        int ids = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        int changes = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+        Manager manager = new Manager();
+        // New customers and parcels are appended to these, as the GUI would
+        Path customerFile = Files.createTempFile("depot-owner-check", ".csv");
+        Path parcelFile = Files.createTempFile("depot-owner-check", ".csv");
+        Path snapshot = Files.createTempFile("depot-owner-check", ".snap");
+        try {
+            SplittableRandom random = new SplittableRandom(5);
+            for (int i = 1; i <= changes; i++) {
+                int kind = random.nextInt(9);
+                if (kind < 4) {
+                    manager.addNewCustomer("Customer", new String[] {id(random, ids), id(random, ids)},
+                        customerFile.toString());
+                } else if (kind == 4) {
+                    manager.getParcelMap().addParcel(new Parcel(id(random, ids), 1, 1, new Dimension(1, 1, 1)));
+                } else if (kind == 5) {
+                    manager.updateParcelStatus(id(random, ids), true);
+                } else if (kind == 6) {
+                    if (manager.getCustomerQueue().getHead() != null) {
+                        manager.processNextCustomer();
+                    }
+                } else if (kind == 7) {
+                    Customer customer = randomCustomer(manager, random);
+                    if (customer != null) {
+                        manager.deleteCustomer(customer.getSequenceNum());
+                    }
+                } else {
+                    Customer customer = randomCustomer(manager, random);
+                    manager.addNewParcel(id(random, ids), 1, 1, 1, 1, 1,
+                        customer == null ? null : String.valueOf(customer.getSequenceNum()), parcelFile.toString());
+                }
+                if (i % 500 == 0) {
+                    verify(manager, ids);
+                }
+            }
+            verify(manager, ids);
+            System.out.printf("%,d changes over %,d parcel IDs: %,d customers, %,d dangling references, index agrees%n",
+                changes, ids, manager.getCustomerQueue().getSize(), manager.countDanglingParcels());
+
+            manager.saveSnapshot(snapshot);
+            Manager restored = new Manager();
+            restored.restoreSnapshot(snapshot);
+            verify(restored, ids);
+            check(restored.countDanglingParcels() == manager.countDanglingParcels(),
+                "restored depot has " + restored.countDanglingParcels() + " dangling references");
+            System.out.println("Snapshot round trip: index agrees");
+        } finally {
+            Files.deleteIfExists(customerFile);
+            Files.deleteIfExists(parcelFile);
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    private static String id(SplittableRandom random, int ids) {
+        return DepotGenerator.parcelId(random.nextInt(ids));
+    }
+
+    private static Customer randomCustomer(Manager manager, SplittableRandom random) {
+        List<Customer> customers = manager.getCustomerQueue().snapshot();
+        return customers.isEmpty() ? null : customers.get(random.nextInt(customers.size()));
+    }
+
+    // The owner is the first customer in queue order that lists the parcel
+    private static void verify(Manager manager, int ids) {
+        Map<String, Customer> owners = new HashMap<>();
+        Set<String> dangling = new HashSet<>();
+        for (Customer customer : manager.getCustomerQueue().getCustomers()) {
+            for (String id : customer.getParcels(0)) {
+                owners.putIfAbsent(id, customer);
+                if (manager.getParcelMap().getParcel(id) == null) {
+                    dangling.add(id);
+                }
+            }
+        }
+        check(dangling.equals(new HashSet<>(manager.getDanglingParcelIds())),
+            manager.getDanglingParcelIds().size() + " dangling references listed, " + dangling.size() + " expected");
+        check(manager.countDanglingParcels() == dangling.size(),
+            manager.countDanglingParcels() + " dangling references counted, " + dangling.size() + " expected");
+        for (int i = 0; i < ids; i++) {
+            String id = DepotGenerator.parcelId(i);
+            Customer owner = manager.getParcelOwner(id);
+            check(owner == owners.get(id), "parcel " + id + " owned by " + describe(owner)
+                + ", expected " + describe(owners.get(id)));
+        }
+    }
+
+    private static String describe(Customer customer) {
+        return customer == null ? "nobody" : "customer " + customer.getSequenceNum();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
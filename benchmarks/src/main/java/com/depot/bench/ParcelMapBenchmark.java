@@ -0,0 +1,106 @@
+package com.depot.bench;
+
+import com.depot.pojo.ParcelMap;
+import com.depot.pojo.common.Dimension;
+import com.depot.pojo.common.Parcel;
+import com.depot.pojo.common.ParcelIdCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// ParcelMap under a mixed load from 1 to 32 threads: nine lookups for every parcel taken and
+// put back, on random parcels. stripes=1 is a single lock around the map, for comparison.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Ddepot.log.file=target/jmh-depot.log", "-Ddepot.log.overflow=DROP"})
+public class ParcelMapBenchmark {
+    @Param({"100000", "1000000"})
+    public int parcels;
+
+    @Param({"hash", "columnar"})
+    public String store;
+
+    @Param({"1", "64"})
+    public int stripes;
+
+    private ParcelMap parcelMap;
+    private long[] codes;
+
+    @Setup(Level.Trial)
+    public void load() {
+        parcelMap = new ParcelMap(store, stripes);
+        ParcelIdCodec codec = ParcelIdCodec.getInstance();
+        codes = new long[parcels];
+        for (int i = 0; i < parcels; i++) {
+            String id = DepotGenerator.parcelId(i);
+            codes[i] = codec.encode(id);
+            parcelMap.addParcel(new Parcel(id, i % 30, 1 + i % 59, new Dimension(1 + i % 39, 1 + i % 37, 1 + i % 31)));
+        }
+    }
+
+    private Parcel step() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long code = codes[random.nextInt(codes.length)];
+        if (random.nextInt(10) != 0) {
+            return parcelMap.getParcel(code);
+        }
+        // Another thread may hold the parcel between its take and put; then this is a miss
+        Parcel parcel = parcelMap.takeParcel(code);
+        if (parcel != null) {
+            parcelMap.addParcel(parcel);
+        }
+        return parcel;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Parcel mixed1() {
+        return step();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public Parcel mixed2() {
+        return step();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Parcel mixed4() {
+        return step();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Parcel mixed8() {
+        return step();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Parcel mixed16() {
+        return step();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Parcel mixed32() {
+        return step();
+    }
+}
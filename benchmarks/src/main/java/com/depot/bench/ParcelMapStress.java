@@ -0,0 +1,116 @@
+package com.depot.bench;
+
+import com.depot.pojo.ParcelMap;
+import com.depot.pojo.common.Dimension;
+import com.depot.pojo.common.Parcel;
+import com.depot.pojo.common.ParcelIdCodec;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Stress check of ParcelMap's concurrency, not a benchmark: threads race to take the same
+// parcels, and every parcel must be taken exactly once; then threads churn random parcels
+// (take, look up, put back) and the size, indexes and iteration must agree afterwards.
+// e.g. java -cp benchmarks/target/benchmarks.jar com.depot.bench.ParcelMapStress 100000 16 hash
+public class ParcelMapStress {
+    public static void main(String[] args) throws InterruptedException {
+        int parcels = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        String store = args.length > 2 ? args[2] : "hash";
+        int stripes = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+
+        ParcelMap parcelMap = new ParcelMap(store, stripes);
+        long[] codes = load(parcelMap, parcels);
+
+        // Every thread tries every parcel, each starting at a different point
+        AtomicIntegerArray takes = new AtomicIntegerArray(parcels);
+        run(threads, thread -> {
+            for (int i = 0; i < parcels; i++) {
+                int index = (i + thread * (parcels / threads)) % parcels;
+                if (parcelMap.takeParcel(codes[index]) != null) {
+                    takes.incrementAndGet(index);
+                }
+            }
+        });
+        for (int i = 0; i < parcels; i++) {
+            check(takes.get(i) == 1, "parcel " + i + " taken " + takes.get(i) + " times");
+        }
+        check(parcelMap.size() == 0, "size " + parcelMap.size() + " after taking every parcel");
+        check(parcelMap.getParcelsBySize().isEmpty(), "size index not empty after taking every parcel");
+        check(parcelMap.getAgeHistogram().isEmpty(), "age index not empty after taking every parcel");
+        System.out.printf("%,d parcels raced by %d threads: each taken once%n", parcels, threads);
+
+        load(parcelMap, parcels);
+        run(threads, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < parcels; i++) {
+                long code = codes[random.nextInt(parcels)];
+                Parcel parcel = parcelMap.takeParcel(code);
+                if (parcel != null) {
+                    check(parcelMap.getParcel(code) == null, "parcel " + parcel.getID() + " still there after take");
+                    parcelMap.addParcel(parcel);
+                }
+            }
+        });
+        int present = 0;
+        for (long code : codes) {
+            if (parcelMap.getParcel(code) != null) {
+                present++;
+            }
+        }
+        check(present == parcels, present + " of " + parcels + " parcels left after churn");
+        check(parcelMap.size() == parcels, "size " + parcelMap.size() + " after churn");
+        check(parcelMap.getParcelsBySize().size() == parcels,
+            "size index holds " + parcelMap.getParcelsBySize().size() + " parcels after churn");
+        check(parcelMap.getAllParcels().values().stream().count() == parcels, "iteration disagrees with size");
+        System.out.printf("%,d parcels churned by %d threads: size and indexes consistent%n", parcels, threads);
+    }
+
+    private static long[] load(ParcelMap parcelMap, int parcels) {
+        ParcelIdCodec codec = ParcelIdCodec.getInstance();
+        long[] codes = new long[parcels];
+        for (int i = 0; i < parcels; i++) {
+            String id = DepotGenerator.parcelId(i);
+            codes[i] = codec.encode(id);
+            parcelMap.addParcel(new Parcel(id, i % 30, 1 + i % 59, new Dimension(1 + i % 39, 1 + i % 37, 1 + i % 31)));
+        }
+        return codes;
+    }
+
+    private interface Task {
+        void run(int thread);
+    }
+
+    // Starts all threads together and waits for them; a failure in any thread fails the run
+    private static void run(int threads, Task task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        Throwable[] failures = new Throwable[threads];
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    task.run(thread);
+                } catch (Throwable e) {
+                    failures[thread] = e;
+                }
+            }, "stress-" + t);
+            workers[t].start();
+        }
+        start.countDown();
+        for (int t = 0; t < threads; t++) {
+            workers[t].join();
+            if (failures[t] != null) {
+                throw new IllegalStateException("Stress thread " + t + " failed", failures[t]);
+            }
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.depot.bench;
+
+import com.depot.pojo.ParcelMap;
+import com.depot.pojo.common.Dimension;
+import com.depot.pojo.common.Parcel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Check of ParcelMap's snapshots and query results, not a benchmark: they are taken, then every
+// other parcel is removed and new ones are added (with the columnar store they land in the freed
+// slots), and each parcel in the earlier lists must still read as it did when it was taken.
+// Runs both stores.
+// e.g. java -cp benchmarks/target/benchmarks.jar com.depot.bench.ParcelSnapshotCheck 100000
+public class ParcelSnapshotCheck {
+    public static void main(String[] args) {
+        int parcels = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        for (String store : new String[] {"hash", "columnar"}) {
+            ParcelMap parcelMap = new ParcelMap(store, 8);
+            for (int i = 0; i < parcels; i++) {
+                parcelMap.addParcel(parcel(DepotGenerator.parcelId(i), i));
+            }
+
+            List<List<Parcel>> results = new ArrayList<>();
+            results.add(parcelMap.snapshot());
+            results.add(parcelMap.getLargestParcels(1000));
+            results.add(parcelMap.getParcelsByVolume(1000, 20000));
+            results.add(parcelMap.getHeaviestParcels(1000));
+            results.add(parcelMap.getParcelsByWeight(10, 20));
+            results.add(parcelMap.getParcelsStoredLongerThan(20));
+            results.add(parcelMap.getParcelsStoredLongerThan(20, 1000));
+            List<List<String>> expected = new ArrayList<>();
+            for (List<Parcel> result : results) {
+                expected.add(describe(result));
+            }
+
+            for (int i = 0; i < parcels; i += 2) {
+                parcelMap.removeParcel(DepotGenerator.parcelId(i));
+            }
+            for (int i = 0; i < parcels / 2; i++) {
+                parcelMap.addParcel(parcel(DepotGenerator.parcelId(parcels + i), parcels + 7 * i));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                check(!results.get(i).isEmpty(), store + ": query " + i + " found no parcels");
+                check(describe(results.get(i)).equals(expected.get(i)),
+                    store + ": query " + i + " changed after its parcels were removed");
+            }
+            System.out.printf("%s: %d snapshots and query results unchanged by %,d removals and %,d additions%n",
+                store, results.size(), (parcels + 1) / 2, parcels / 2);
+        }
+    }
+
+    private static Parcel parcel(String id, int seed) {
+        return new Parcel(id, seed % 40, 1 + seed % 53, new Dimension(1 + seed % 31, 1 + seed % 29, 1 + seed % 23));
+    }
+
+    private static List<String> describe(List<Parcel> parcels) {
+        List<String> rows = new ArrayList<>(parcels.size());
+        for (Parcel parcel : parcels) {
+            Dimension dimension = parcel.getDimension();
+            rows.add(parcel.getID() + " " + parcel.getDays() + " " + parcel.getWeight() + " "
+                + dimension.getLength() + "x" + dimension.getWidth() + "x" + dimension.getHeight());
+        }
+        return rows;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
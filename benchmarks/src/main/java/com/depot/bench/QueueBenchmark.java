@@ -0,0 +1,66 @@
+package com.depot.bench;
+
+import com.depot.pojo.Manager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Queue processing: each iteration restores the loaded depot from a snapshot and then
+// processes a fixed batch of customers, so every iteration starts from the same state
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, batchSize = QueueBenchmark.BATCH)
+@Measurement(iterations = 10, batchSize = QueueBenchmark.BATCH)
+@Fork(value = 1, jvmArgsAppend = {"-Ddepot.log.file=target/jmh-depot.log", "-Ddepot.log.overflow=DROP"})
+public class QueueBenchmark {
+    static final int BATCH = 1000;
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int parcels;
+
+    @Param({"1", "4"})
+    public int fanout;
+
+    private Path snapshot;
+    private Manager manager;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        DepotGenerator data = DepotGenerator.generate(parcels, fanout);
+        manager = new Manager();
+        manager.initSystem(data.getCustomerFile().toString(), data.getParcelFile().toString());
+        snapshot = Files.createTempFile("depot-bench", ".snap");
+        manager.saveSnapshot(snapshot);
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() throws IOException {
+        manager.restoreSnapshot(snapshot);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        Files.deleteIfExists(snapshot);
+    }
+
+    @Benchmark
+    public void processNextCustomer() {
+        manager.processNextCustomer();
+    }
+}
@@ -0,0 +1,56 @@
+package com.depot.bench;
+
+import com.depot.pojo.common.Parcel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Report generation (long-stored scan plus file output) and size-ordered queries on a loaded depot
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Ddepot.log.file=target/jmh-depot.log", "-Ddepot.log.overflow=DROP"})
+public class ReportBenchmark {
+    private static final String REPORT_FILE = "target/jmh-report.txt";
+
+    @Benchmark
+    public List<Parcel> longStoredParcels(DepotState depot) {
+        return depot.manager.getLongStoredParcels(30);
+    }
+
+    @Benchmark
+    public long printReport(DepotState depot) {
+        depot.manager.printReport(REPORT_FILE);
+        return new File(REPORT_FILE).length();
+    }
+
+    @Benchmark
+    public float iterateSortedParcels(DepotState depot) {
+        float total = 0;
+        for (Parcel parcel : depot.manager.getSortedParcels()) {
+            total += parcel.getSize();
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Parcel> largest100(DepotState depot) {
+        return depot.manager.getLargestParcels(100);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Parcel> volumeRange(DepotState depot) {
+        return depot.manager.getParcelsByVolume(1000f, 1100f);
+    }
+}
@@ -2,16 +2,27 @@ package com.depot.gui.controller;
 
 import com.depot.gui.model.DepotModel;
 import com.depot.gui.view.DepotView;
+import com.depot.pojo.ImportProgress;
 import com.depot.pojo.Log;
+import com.depot.pojo.LogHistory;
+import com.depot.pojo.StreamingImport;
 import com.depot.pojo.common.Customer;
 
 import javax.swing.*;
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.JComboBox;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 public class DepotController {
+    private static final int MAX_LOG_LINES = 5000;
+    // Table refreshes while an import runs are at least this far apart, and at least four times
+    // as far as the last refresh took, so rebuilding the tables stays a small share of the import
+    private static final long IMPORT_REFRESH_MS = 1000;
     private DepotModel model;
     private DepotView view;
+    private long logCursor;
+    private StreamingImport currentImport;
     
     public DepotController(DepotModel model, DepotView view) {
         this.model = model;
@@ -33,6 +44,7 @@ public class DepotController {
         view.getAddCustomerButton().addActionListener(e -> addCustomer());
         view.getAddParcelButton().addActionListener(e -> addParcel());
         view.getDeleteCustomerButton().addActionListener(e -> deleteCustomer());
+        view.getCancelImportButton().addActionListener(e -> cancelImport());
     }
     
     private void initSystem() {
@@ -50,8 +62,61 @@ public class DepotController {
         if (result != JFileChooser.APPROVE_OPTION) return;
         String parcelFile = fileChooser.getSelectedFile().getPath();
         
-        model.initSystem(customerFile, parcelFile);
-        updateDisplay();
+        // Stream the files in the background; batches are applied on the event thread so the
+        // depot can be searched and processed while the import is still running. The tables
+        // show what has arrived so far, refreshed from time to time rather than per batch:
+        // rebuilding them after every batch would make the import quadratic.
+        StreamingImport streamingImport = model.createStreamingImport(customerFile, parcelFile);
+        currentImport = streamingImport;
+        view.showImportProgress(0, "Loading...");
+        StreamingImport.Listener listener = new StreamingImport.Listener() {
+            private long nextRefresh = System.nanoTime();
+            
+            @Override
+            public void onProgress(ImportProgress progress) {
+                view.showImportProgress(progress.getPercent(), progress.toString());
+                long start = System.nanoTime();
+                if (start - nextRefresh >= 0) {
+                    model.updateTables();
+                    long took = System.nanoTime() - start;
+                    nextRefresh = System.nanoTime()
+                        + Math.max(TimeUnit.MILLISECONDS.toNanos(IMPORT_REFRESH_MS), 4 * took);
+                }
+                updateDisplay();
+            }
+            
+            @Override
+            public void onFinished(ImportProgress progress, boolean cancelled) {
+                currentImport = null;
+                view.hideImportProgress();
+                if (!cancelled) {
+                    model.openJournal();
+                }
+                model.updateTables();
+                updateDisplay();
+            }
+            
+            @Override
+            public void onError(IOException e) {
+                currentImport = null;
+                view.hideImportProgress();
+                JOptionPane.showMessageDialog(view, "Error reading data file: " + e.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        };
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                streamingImport.run(SwingUtilities::invokeLater, listener);
+                return null;
+            }
+        }.execute();
+    }
+    
+    private void cancelImport() {
+        if (currentImport != null) {
+            currentImport.cancel();
+        }
     }
     
     private void processNextCustomer() {
@@ -59,8 +124,9 @@ public class DepotController {
             model.processNextCustomer();
             updateDisplay();
         } catch (IllegalStateException e) {
+            // "No customers in queue", or a journal failure
             JOptionPane.showMessageDialog(view, 
-                "No customers in queue", 
+                e.getMessage(), 
                 "Error", 
                 JOptionPane.WARNING_MESSAGE);
         }
@@ -217,6 +283,24 @@ public class DepotController {
     }
     
     private void updateLogArea() {
-        view.getLogArea().setText(Log.getInstance().getLog());
+        LogHistory.Slice slice = Log.getInstance().getEntriesSince(logCursor);
+        logCursor = slice.getNextCursor();
+        JTextArea logArea = view.getLogArea();
+        if (slice.isTruncated()) {
+            logArea.setText("");
+        }
+        for (String entry : slice.getEntries()) {
+            logArea.append(entry);
+        }
+
+        // Keep the text area bounded as well, dropping the oldest lines
+        int excess = logArea.getLineCount() - MAX_LOG_LINES;
+        if (excess > 0) {
+            try {
+                logArea.replaceRange("", 0, logArea.getLineEndOffset(excess - 1));
+            } catch (javax.swing.text.BadLocationException e) {
+                logArea.setText("");
+            }
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.depot.gui.model;
+
+import com.depot.pojo.Manager;
+import com.depot.pojo.ParcelMap;
+import com.depot.pojo.Tariff;
+import com.depot.pojo.TariffManager;
+import com.depot.pojo.common.Customer;
+import com.depot.pojo.common.LongHashMap;
+import com.depot.pojo.common.Parcel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Estimated fee per customer for the customer table, computed on first render and then served
+// from the cache. Each estimate records the parcel codes it read; a ParcelMap change to one of
+// them drops just the customers that depend on it, and a customer given another parcel is
+// dropped when the Manager reports it. Advancing the depot clock re-ages every parcel and a new
+// tariff reprices every parcel, so either one drops the whole cache.
+class CustomerFeeCache implements ParcelMap.Listener, Manager.CustomerListener {
+    private final Manager manager;
+    private final Map<Customer, Float> fees = new IdentityHashMap<>();
+    // Parcel code -> the customer whose estimate read it; parcels listed by more than one
+    // customer keep the others in shared
+    private final LongHashMap<Customer> owners = new LongHashMap<>();
+    private final Map<Long, List<Customer>> shared = new HashMap<>();
+    // Depot date and tariff the cached estimates were computed with
+    private long day;
+    private Tariff tariff;
+
+    CustomerFeeCache(Manager manager) {
+        this.manager = manager;
+        manager.getParcelMap().addListener(this);
+        manager.addCustomerListener(this);
+    }
+
+    synchronized float getFee(Customer customer) {
+        long today = manager.getClock().today();
+        Tariff current = TariffManager.getInstance().current();
+        if (today != day || current != tariff) {
+            clear();
+            day = today;
+            tariff = current;
+        }
+        Float fee = fees.get(customer);
+        if (fee == null) {
+            fee = calculateTotalFee(customer, current);
+            fees.put(customer, fee);
+            for (int i = 0; i < customer.getParcelCount(); i++) {
+                addDependency(customer.getParcelCode(i), customer);
+            }
+        }
+        return fee;
+    }
+
+    // Drops estimates of customers no longer shown, e.g. after deleteCustomer
+    synchronized void retainAll(List<Customer> customers) {
+        if (fees.size() <= customers.size()) {
+            return;
+        }
+        Set<Customer> shown = Collections.newSetFromMap(new IdentityHashMap<>());
+        shown.addAll(customers);
+        for (Customer customer : new ArrayList<>(fees.keySet())) {
+            if (!shown.contains(customer)) {
+                invalidate(customer);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void parcelChanged(long code) {
+        Customer owner = owners.get(code);
+        if (owner == null) {
+            return;
+        }
+        List<Customer> others = shared.get(code);
+        // Invalidating the owner promotes one of the others, so copy them first
+        List<Customer> dependents = others == null ? List.of() : new ArrayList<>(others);
+        invalidate(owner);
+        for (Customer customer : dependents) {
+            invalidate(customer);
+        }
+    }
+
+    @Override
+    public synchronized void parcelsReset() {
+        clear();
+    }
+
+    // The estimate read the old parcel list; the new parcel was added before it was assigned,
+    // so no parcel change reaches the customer
+    @Override
+    public synchronized void customerParcelsChanged(Customer customer) {
+        invalidate(customer);
+    }
+
+    private float calculateTotalFee(Customer customer, Tariff tariff) {
+        float totalFee = 0;
+        for (int i = 0; i < customer.getParcelCount(); i++) {
+            Parcel parcel = manager.getParcelMap().getParcel(customer.getParcelCode(i));
+            if (parcel != null) {
+                totalFee += manager.getWorker().calculateFee(parcel, tariff);
+            }
+        }
+        return totalFee;
+    }
+
+    private void invalidate(Customer customer) {
+        if (fees.remove(customer) == null) {
+            return;
+        }
+        for (int i = 0; i < customer.getParcelCount(); i++) {
+            removeDependency(customer.getParcelCode(i), customer);
+        }
+    }
+
+    private void addDependency(long code, Customer customer) {
+        Customer owner = owners.get(code);
+        if (owner == null) {
+            owners.put(code, customer);
+        } else if (owner != customer) {
+            List<Customer> others = shared.computeIfAbsent(code, k -> new ArrayList<>(2));
+            if (!others.contains(customer)) {
+                others.add(customer);
+            }
+        }
+    }
+
+    private void removeDependency(long code, Customer customer) {
+        Customer owner = owners.get(code);
+        List<Customer> others = shared.get(code);
+        if (owner == customer) {
+            if (others == null) {
+                owners.remove(code);
+            } else {
+                // Promote another dependent to owner
+                owners.put(code, others.remove(others.size() - 1));
+                if (others.isEmpty()) {
+                    shared.remove(code);
+                }
+            }
+        } else if (others != null) {
+            others.remove(customer);
+            if (others.isEmpty()) {
+                shared.remove(code);
+            }
+        }
+    }
+
+    private void clear() {
+        fees.clear();
+        owners.clear();
+        shared.clear();
+    }
+}
@@ -5,6 +5,8 @@ import com.depot.pojo.*;
 import com.depot.pojo.common.*;
 
 import javax.swing.table.AbstractTableModel;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -28,20 +30,32 @@ public class DepotModel {
         updateTables();
     }
     
-    public void initSystem(String customerFile, String parcelFile) {
+    // With -Ddepot.journal.dir set, mutations are journaled there and a previous session's
+    // journal is recovered on top of (and replaces) the freshly loaded CSV data. Called once the
+    // import has finished.
+    public void openJournal() {
+        String directory = System.getProperty("depot.journal.dir");
+        if (directory == null || manager.getJournal() != null) {
+            return;
+        }
+        try {
+            manager.enableJournal(Paths.get(directory));
+        } catch (IOException e) {
+            System.err.println("Error opening journal: " + e.getMessage());
+        }
+    }
+    
+    // The GUI's import: the caller runs it, refreshes the tables when it finishes and then
+    // opens the journal
+    public StreamingImport createStreamingImport(String customerFile, String parcelFile) {
         this.customerFilePath = customerFile;
         this.parcelFilePath = parcelFile;
-        manager.initSystem(customerFile, parcelFile);
-        updateTables();
+        return new StreamingImport(manager, Paths.get(customerFile), Paths.get(parcelFile));
     }
     
     public void processNextCustomer() {
-        try {
-            manager.processNextCustomer();
-            updateTables();
-        } catch (IllegalStateException e) {
-            throw new IllegalStateException("No customers in queue");
-        }
+        manager.processNextCustomer();
+        updateTables();
     }
     
     public void addNewCustomer(String name, String[] parcelIds) {
@@ -72,11 +86,11 @@ public class DepotModel {
     }
     
     public List<Customer> getCustomerList() {
-        return new ArrayList<>(manager.getCustomerQueue().getCustomers());
+        return manager.getCustomerQueue().snapshot();
     }
     
     private List<Parcel> getParcelList() {
-        return new ArrayList<>(manager.getParcelMap().getAllParcels().values());
+        return manager.getParcelMap().snapshot();
     }
     
     public CustomerTableModel getCustomerTableModel() {
@@ -132,14 +146,16 @@ public class DepotModel {
 class CustomerTableModel extends AbstractTableModel {
     private List<Customer> customers = new ArrayList<>();
     private final String[] columnNames = {"Sequence", "Name", "Parcel IDs", "Estimated Fee"};
-    private Manager manager;
+    // Rendering a row looks its fee up instead of recomputing it from every parcel
+    private final CustomerFeeCache feeCache;
     
     public CustomerTableModel(Manager manager) {
-        this.manager = manager;
+        this.feeCache = new CustomerFeeCache(manager);
     }
     
     public void updateData(List<Customer> customers) {
         this.customers = customers;
+        feeCache.retainAll(customers);
         fireTableDataChanged();
     }
     
@@ -167,24 +183,10 @@ class CustomerTableModel extends AbstractTableModel {
             case 2: 
                 String[] parcelIds = customer.getParcels(0);
                 return parcelIds.length > 0 ? String.join(", ", parcelIds) : "";
-            case 3: return String.format("%.2f", calculateTotalFee(customer));
+            case 3: return String.format("%.2f", feeCache.getFee(customer));
             default: return "";
         }
     }
-    
-    private float calculateTotalFee(Customer customer) {
-        float totalFee = 0;
-        String[] parcelIds = customer.getParcels(0);
-        for (String parcelId : parcelIds) {
-            if (parcelId != null) {
-                Parcel parcel = manager.getParcelMap().getParcel(parcelId);
-                if (parcel != null) {
-                    totalFee += manager.getWorker().calculateFee(parcel);
-                }
-            }
-        }
-        return totalFee;
-    }
 }
 
 class ParcelTableModel extends AbstractTableModel {
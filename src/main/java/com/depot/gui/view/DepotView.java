@@ -24,6 +24,8 @@ public class DepotView extends JFrame {
     private JButton addCustomerButton;
     private JButton addParcelButton;
     private JButton deleteCustomerButton;
+    private JButton cancelImportButton;
+    private JProgressBar importProgressBar;
     private JTextArea logArea;
     
     public DepotView() {
@@ -119,6 +121,16 @@ public class DepotView extends JFrame {
         buttonPanel.add(addParcelButton);
         buttonPanel.add(deleteCustomerButton);
         
+        // Import progress (shown while a data file is streaming in)
+        importProgressBar = new JProgressBar(0, 100);
+        importProgressBar.setStringPainted(true);
+        importProgressBar.setPreferredSize(new Dimension(420, 24));
+        importProgressBar.setVisible(false);
+        cancelImportButton = new JButton("Cancel Import");
+        cancelImportButton.setVisible(false);
+        buttonPanel.add(importProgressBar);
+        buttonPanel.add(cancelImportButton);
+        
         // Create log area
         logArea = new JTextArea();
         logArea.setEditable(false);
@@ -144,8 +156,23 @@ public class DepotView extends JFrame {
     public JButton getAddCustomerButton() { return addCustomerButton; }
     public JButton getAddParcelButton() { return addParcelButton; }
     public JButton getDeleteCustomerButton() { return deleteCustomerButton; }
+    public JButton getCancelImportButton() { return cancelImportButton; }
     public JTextArea getLogArea() { return logArea; }
     
+    public void showImportProgress(int percent, String text) {
+        importProgressBar.setValue(percent);
+        importProgressBar.setString(text);
+        importProgressBar.setVisible(true);
+        cancelImportButton.setVisible(true);
+        initButton.setEnabled(false);
+    }
+    
+    public void hideImportProgress() {
+        importProgressBar.setVisible(false);
+        cancelImportButton.setVisible(false);
+        initButton.setEnabled(true);
+    }
+    
     // New: Method to update current work status
     public void updateWorkStatus(String customerName, Parcel parcel, float fee) {
         currentCustomerLabel.setText("Current Customer: " + (customerName != null ? customerName : "None"));
@@ -0,0 +1,221 @@
+package com.depot.http;
+
+import com.depot.pojo.Manager;
+import com.depot.pojo.Worker;
+import com.depot.pojo.common.Customer;
+import com.depot.pojo.common.Dimension;
+import com.depot.pojo.common.Parcel;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Request handler behind DepotServer. Answers are JSON objects; failures carry an "error" field.
+//   GET  /parcels/{id}                      stored parcel, or {"id", "status": "processed"}
+//   POST /customers?name=..&parcels=X1;X2   enqueue a customer (parameters may also be a form body)
+//   POST /queue/next                        serve the customer at the head of the queue
+//   GET  /reports/long-stored?days=N&limit=M parcels stored more than N days, at most M listed
+class DepotApi implements HttpHandler {
+    private static final int DEFAULT_REPORT_LIMIT = 100;
+
+    private final Manager manager;
+    private final String customerFile;
+    // The HTTP counter; Worker only keeps what it last served, so requests can share it
+    private final Worker worker = new Worker();
+
+    DepotApi(Manager manager, String customerFile) {
+        this.manager = manager;
+        this.customerFile = customerFile;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            route(exchange);
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            System.err.println("Error serving " + exchange.getRequestURI() + ": " + e);
+            send(exchange, 500, error("Internal error"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        if (path.startsWith("/parcels/") && path.length() > "/parcels/".length()) {
+            if (expect(exchange, method, "GET")) {
+                getParcel(exchange, path.substring("/parcels/".length()));
+            }
+        } else if (path.equals("/customers")) {
+            if (expect(exchange, method, "POST")) {
+                addCustomer(exchange, parameters(exchange));
+            }
+        } else if (path.equals("/queue/next")) {
+            if (expect(exchange, method, "POST")) {
+                processNext(exchange);
+            }
+        } else if (path.equals("/reports/long-stored")) {
+            if (expect(exchange, method, "GET")) {
+                longStored(exchange, parameters(exchange));
+            }
+        } else {
+            send(exchange, 404, error("No such resource: " + path));
+        }
+    }
+
+    private void getParcel(HttpExchange exchange, String id) throws IOException {
+        Parcel parcel = manager.searchParcelById(id);
+        if (parcel != null) {
+            send(exchange, 200, parcelJson(new StringBuilder(), parcel).toString());
+        } else if (manager.isParcelProcessed(id)) {
+            send(exchange, 200, "{\"id\":" + quote(id) + ",\"status\":\"processed\"}");
+        } else {
+            send(exchange, 404, error("Parcel not found: " + id));
+        }
+    }
+
+    private void addCustomer(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+        String name = required(parameters, "name");
+        String parcels = required(parameters, "parcels");
+        int sequenceNum = manager.addNewCustomer(name, parcels.split("[;,]"), customerFile);
+        send(exchange, 201, "{\"sequenceNum\":" + sequenceNum + ",\"name\":" + quote(name) + "}");
+    }
+
+    private void processNext(HttpExchange exchange) throws IOException {
+        Customer customer = manager.processNextCustomer(worker, null);
+        if (customer == null) {
+            send(exchange, 409, error("No customers in queue"));
+            return;
+        }
+        send(exchange, 200, "{\"sequenceNum\":" + customer.getSequenceNum()
+            + ",\"name\":" + quote(customer.getName())
+            + ",\"parcels\":" + customer.getParcelCount()
+            + ",\"fee\":" + customer.getCost() + "}");
+    }
+
+    private void longStored(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+        int days = intParameter(parameters, "days", -1);
+        if (days < 0) {
+            throw new IllegalArgumentException("days must be given and not negative");
+        }
+        int limit = intParameter(parameters, "limit", DEFAULT_REPORT_LIMIT);
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative");
+        }
+        // Count and list separately, so a large backlog is never collected just to be cut down
+        int count = manager.countLongStoredParcels(days);
+        List<Parcel> parcels = manager.getLongStoredParcels(days, limit);
+        StringBuilder json = new StringBuilder("{\"days\":").append(days)
+            .append(",\"count\":").append(count)
+            .append(",\"parcels\":[");
+        for (int i = 0; i < parcels.size(); i++) {
+            if (i > 0) json.append(',');
+            parcelJson(json, parcels.get(i));
+        }
+        send(exchange, 200, json.append("]}").toString());
+    }
+
+    private static StringBuilder parcelJson(StringBuilder json, Parcel parcel) {
+        Dimension dimension = parcel.getDimension();
+        return json.append("{\"id\":").append(quote(parcel.getID()))
+            .append(",\"status\":\"stored\"")
+            .append(",\"days\":").append(parcel.getDays())
+            .append(",\"weight\":").append(parcel.getWeight())
+            .append(",\"length\":").append(dimension.getLength())
+            .append(",\"width\":").append(dimension.getWidth())
+            .append(",\"height\":").append(dimension.getHeight())
+            .append('}');
+    }
+
+    private static boolean expect(HttpExchange exchange, String method, String expected) throws IOException {
+        if (method.equals(expected)) {
+            return true;
+        }
+        exchange.getResponseHeaders().set("Allow", expected);
+        send(exchange, 405, error(method + " not allowed"));
+        return false;
+    }
+
+    // Query string parameters, plus a form-encoded body for POSTs
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        Map<String, String> parameters = new HashMap<>();
+        parse(exchange.getRequestURI().getRawQuery(), parameters);
+        if (exchange.getRequestMethod().equals("POST")) {
+            try (InputStream body = exchange.getRequestBody()) {
+                parse(new String(body.readAllBytes(), StandardCharsets.UTF_8), parameters);
+            }
+        }
+        return parameters;
+    }
+
+    private static void parse(String encoded, Map<String, String> parameters) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+                URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String required(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value.trim();
+    }
+
+    private static int intParameter(Map<String, String> parameters, String name, int defaultValue) {
+        String value = parameters.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a number: " + value);
+        }
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.depot.http;
+
+import com.depot.pojo.Log;
+import com.depot.pojo.Manager;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Local HTTP front end over a Manager for kiosks and handheld scanners (see DepotApi for the
+// endpoints). The JDK server multiplexes connections on one selector thread and hands every
+// request to the executor as its own task: one virtual thread per request on JVMs that have
+// them, otherwise a fixed pool (depot.http.threads, four per processor by default), so open
+// connections never tie up a thread each.
+public class DepotServer {
+    static final String THREADS_PROPERTY = "depot.http.threads";
+    // Pending connections the kernel queues before the selector accepts them
+    private static final int BACKLOG = 4096;
+    private static final int STOP_DELAY_SECONDS = 1;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    public DepotServer(Manager manager, InetSocketAddress address, String customerFile) throws IOException {
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual
+            : Executors.newFixedThreadPool(Integer.getInteger(THREADS_PROPERTY,
+                4 * Runtime.getRuntime().availableProcessors()));
+        this.server = HttpServer.create(address, BACKLOG);
+        server.createContext("/", new DepotApi(manager, customerFile));
+        server.setExecutor(executor);
+    }
+
+    // Built for Java 17, so virtual threads (Java 21) are looked up rather than linked
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    public void start() {
+        server.start();
+        Log.getInstance().addLog(String.format("HTTP API listening on port %d (%s)",
+            getPort(), virtualThreads ? "virtual threads" : "thread pool"));
+    }
+
+    // Requests in progress get a moment to finish before the executor is shut down
+    public void stop() {
+        server.stop(STOP_DELAY_SECONDS);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(STOP_DELAY_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The bound port, useful when the server was created on port 0
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    // e.g. java -cp depot.jar com.depot.http.DepotServer Custs.csv Parcels.csv 8080
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: DepotServer <customer file> <parcel file> [port]");
+            System.exit(2);
+        }
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : 8080;
+        Manager manager = new Manager();
+        manager.initSystemParallel(args[0], args[1]);
+        DepotServer server = new DepotServer(manager, new InetSocketAddress(port), args[0]);
+        server.start();
+        System.out.println("Depot API on http://localhost:" + server.getPort()
+            + (server.usesVirtualThreads() ? " (virtual threads)" : " (thread pool)"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.depot.pojo;
+
+import com.depot.pojo.common.DepotClock;
+import com.depot.pojo.common.LongHashMap;
+import com.depot.pojo.common.Parcel;
+import com.depot.pojo.common.ParcelIdCodec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+// Parcels bucketed by arrival day. Storage days are the map's clock date minus the arrival
+// day, so advancing the clock ages everything without re-bucketing or touching any parcel.
+// "Stored more than N days" walks just the buckets that arrived before today - N, in time
+// proportional to the result. Buckets are keyed by parcel ID code, since a store may hand out a
+// different Parcel object for the same parcel on every lookup.
+class AgeIndex {
+    private final ParcelIdCodec codec = ParcelIdCodec.getInstance();
+    private final TreeMap<Long, LongHashMap<Parcel>> buckets = new TreeMap<>();
+    private final DepotClock clock;
+
+    AgeIndex(DepotClock clock) {
+        this.clock = clock;
+    }
+
+    void add(Parcel parcel) {
+        buckets.computeIfAbsent(parcel.getArrivalDay(), key -> new LongHashMap<>())
+            .put(codec.encode(parcel.getID()), parcel);
+    }
+
+    void remove(Parcel parcel) {
+        long key = parcel.getArrivalDay();
+        LongHashMap<Parcel> bucket = buckets.get(key);
+        if (bucket != null && bucket.remove(codec.lookup(parcel.getID())) != null && bucket.isEmpty()) {
+            buckets.remove(key);
+        }
+    }
+
+    void clear() {
+        buckets.clear();
+    }
+
+    // Parcels with more than the given storage days, longest stored first
+    List<Parcel> olderThan(int days) {
+        List<Parcel> result = new ArrayList<>();
+        for (LongHashMap<Parcel> bucket : olderBuckets(days).values()) {
+            result.addAll(bucket.values());
+        }
+        return result;
+    }
+
+    // As above, but stops after limit parcels instead of walking every older bucket
+    List<Parcel> olderThan(int days, int limit) {
+        List<Parcel> result = new ArrayList<>(Math.min(limit, 1024));
+        for (LongHashMap<Parcel> bucket : olderBuckets(days).values()) {
+            for (Parcel parcel : bucket.values()) {
+                if (result.size() == limit) {
+                    return result;
+                }
+                result.add(parcel);
+            }
+        }
+        return result;
+    }
+
+    int countOlderThan(int days) {
+        int count = 0;
+        for (LongHashMap<Parcel> bucket : olderBuckets(days).values()) {
+            count += bucket.size();
+        }
+        return count;
+    }
+
+    private SortedMap<Long, LongHashMap<Parcel>> olderBuckets(int days) {
+        return buckets.headMap(clock.today() - days);
+    }
+
+    // Storage days -> number of parcels, ascending by days
+    SortedMap<Integer, Integer> histogram() {
+        long today = clock.today();
+        TreeMap<Integer, Integer> histogram = new TreeMap<>();
+        for (Map.Entry<Long, LongHashMap<Parcel>> entry : buckets.entrySet()) {
+            histogram.put((int) (today - entry.getKey()), entry.getValue().size());
+        }
+        return Collections.unmodifiableSortedMap(histogram);
+    }
+}
@@ -0,0 +1,228 @@
+package com.depot.pojo;
+
+import com.depot.pojo.common.DepotClock;
+import com.depot.pojo.common.Dimension;
+import com.depot.pojo.common.LongIntHashMap;
+import com.depot.pojo.common.Parcel;
+import com.depot.pojo.common.ParcelIdCodec;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Parcel attributes in parallel primitive arrays, one slot per parcel, found through an
+// ID code -> slot LongIntHashMap (see ParcelIdCodec). Freed slots are reused. Per parcel this
+// keeps 28 bytes of columns plus the hash entry instead of a Parcel, a Dimension, the ID string
+// and their headers, and scan() walks the columns sequentially.
+//
+// Parcels handed out are flyweight views on a slot: cheap to create, valid while the parcel
+// is stored. A view's Dimension is a fresh copy of the stored columns.
+// Arrival days are kept as they are; storage days are measured against the store's clock.
+public class ColumnarParcelStore implements ParcelStore {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ParcelIdCodec codec = ParcelIdCodec.getInstance();
+    private final DepotClock clock;
+    // ParcelIdCodec.NO_ID marks a free slot
+    private long[] codes = newCodes(INITIAL_CAPACITY);
+    private int[] arrivalDays = new int[INITIAL_CAPACITY];
+    private float[] weights = new float[INITIAL_CAPACITY];
+    private float[] lengths = new float[INITIAL_CAPACITY];
+    private float[] widths = new float[INITIAL_CAPACITY];
+    private float[] heights = new float[INITIAL_CAPACITY];
+    // Slots in use are [0, highWater); freed ones below it are reused first
+    private int highWater;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private final LongIntHashMap slots = new LongIntHashMap(INITIAL_CAPACITY, -1);
+
+    private final Map<String, Parcel> view = new ParcelStoreMapView(this);
+    private final Collection<Parcel> values = new ValuesView();
+
+    public ColumnarParcelStore() {
+        this(DepotClock.FIXED);
+    }
+
+    public ColumnarParcelStore(DepotClock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public Parcel get(long code) {
+        int slot = slots.get(code);
+        return slot < 0 ? null : new ParcelView(slot);
+    }
+
+    @Override
+    public Parcel put(Parcel parcel) {
+        long code = codec.encode(parcel.getID());
+        int slot = slots.get(code);
+        Parcel previous = null;
+        if (slot >= 0) {
+            previous = materialize(slot);
+        } else {
+            slot = allocateSlot();
+            codes[slot] = code;
+            slots.put(code, slot);
+        }
+        Dimension dimension = parcel.getDimension();
+        arrivalDays[slot] = (int) parcel.getArrivalDay();
+        weights[slot] = parcel.getWeight();
+        lengths[slot] = dimension.getLength();
+        widths[slot] = dimension.getWidth();
+        heights[slot] = dimension.getHeight();
+        return previous;
+    }
+
+    @Override
+    public Parcel remove(long code) {
+        int slot = slots.remove(code);
+        if (slot < 0) {
+            return null;
+        }
+        Parcel removed = materialize(slot);
+        codes[slot] = ParcelIdCodec.NO_ID;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        return slots.size();
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(codes, 0, highWater, ParcelIdCodec.NO_ID);
+        slots.clear();
+        highWater = 0;
+        freeCount = 0;
+    }
+
+    @Override
+    public Collection<Parcel> values() {
+        return values;
+    }
+
+    @Override
+    public Map<String, Parcel> asMap() {
+        return view;
+    }
+
+    @Override
+    public void scan(RowVisitor visitor) {
+        int today = (int) clock.today();
+        for (int slot = 0; slot < highWater; slot++) {
+            if (codes[slot] != ParcelIdCodec.NO_ID) {
+                visitor.visit(today - arrivalDays[slot], weights[slot],
+                    lengths[slot], widths[slot], heights[slot]);
+            }
+        }
+    }
+
+    @Override
+    public Parcel detach(Parcel parcel) {
+        return parcel instanceof ParcelView ? materialize(((ParcelView) parcel).slot) : parcel;
+    }
+
+    private Parcel materialize(int slot) {
+        return Parcel.arrived(clock, codec.decode(codes[slot]), arrivalDays[slot], weights[slot],
+            new Dimension(lengths[slot], widths[slot], heights[slot]));
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (highWater == codes.length) {
+            int capacity = codes.length * 2;
+            codes = Arrays.copyOf(codes, capacity);
+            Arrays.fill(codes, highWater, capacity, ParcelIdCodec.NO_ID);
+            arrivalDays = Arrays.copyOf(arrivalDays, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            widths = Arrays.copyOf(widths, capacity);
+            heights = Arrays.copyOf(heights, capacity);
+        }
+        return highWater++;
+    }
+
+    private static long[] newCodes(int capacity) {
+        long[] codes = new long[capacity];
+        Arrays.fill(codes, ParcelIdCodec.NO_ID);
+        return codes;
+    }
+
+    private class ParcelView extends Parcel {
+        private final int slot;
+
+        ParcelView(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public String getID() { return codec.decode(codes[slot]); }
+
+        @Override
+        public int getDays() { return (int) (clock.today() - arrivalDays[slot]); }
+
+        @Override
+        public long getArrivalDay() { return arrivalDays[slot]; }
+
+        @Override
+        public DepotClock getClock() { return clock; }
+
+        @Override
+        public float getWeight() { return weights[slot]; }
+
+        @Override
+        public Dimension getDimension() { return new Dimension(lengths[slot], widths[slot], heights[slot]); }
+
+        @Override
+        public float getSize() { return lengths[slot] * widths[slot] * heights[slot]; }
+    }
+
+    private class SlotIterator implements Iterator<Parcel> {
+        private int next = advance(0);
+
+        private int advance(int from) {
+            while (from < highWater && codes[from] == ParcelIdCodec.NO_ID) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < highWater;
+        }
+
+        @Override
+        public Parcel next() {
+            if (next >= highWater) {
+                throw new NoSuchElementException();
+            }
+            Parcel parcel = new ParcelView(next);
+            next = advance(next + 1);
+            return parcel;
+        }
+    }
+
+    private class ValuesView extends AbstractCollection<Parcel> {
+        @Override
+        public Iterator<Parcel> iterator() {
+            return new SlotIterator();
+        }
+
+        @Override
+        public int size() {
+            return slots.size();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.depot.pojo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Collection counters serving the manager's customer queue concurrently, one thread and one
+// Worker per counter. Counter 0 uses the manager's own worker, so the GUI's work status shows
+// it. Either drain the queue with processAll, or start() the counters and let idle ones poll
+// the queue for new customers until stop(). A counter that fails stops; the first failure is
+// rethrown by processAll or stop once every counter has finished, later ones are suppressed in it.
+public class CounterPool {
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final Manager manager;
+    private final Worker[] workers;
+    private final CounterStats[] stats;
+    private volatile boolean running;
+    private Thread[] threads;
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    public CounterPool(Manager manager, int counters) {
+        if (counters < 1) {
+            throw new IllegalArgumentException("A counter pool needs at least one counter: " + counters);
+        }
+        this.manager = manager;
+        this.workers = new Worker[counters];
+        this.stats = new CounterStats[counters];
+        for (int i = 0; i < counters; i++) {
+            workers[i] = i == 0 ? manager.getWorker() : new Worker();
+            stats[i] = new CounterStats(i);
+        }
+    }
+
+    public int getCounterCount() {
+        return workers.length;
+    }
+
+    public Worker getWorker(int counter) {
+        return workers[counter];
+    }
+
+    public CounterStats getStats(int counter) {
+        return stats[counter];
+    }
+
+    public List<CounterStats> getStats() {
+        return List.of(stats);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Serves customers until the queue is empty; returns how many were served
+    public synchronized long processAll() {
+        if (running) {
+            throw new IllegalStateException("Counters are already running");
+        }
+        long before = servedCustomers();
+        running = true;
+        startThreads(true, false);
+        try {
+            joinThreads();
+        } finally {
+            running = false;
+        }
+        rethrowFailure();
+        Log.getInstance().addLog(String.format("%d counters served %d customers",
+            workers.length, servedCustomers() - before));
+        return servedCustomers() - before;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("Counters are already running");
+        }
+        running = true;
+        startThreads(false, true);
+    }
+
+    // Counters finish the customer they are serving, then stop
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        joinThreads();
+        rethrowFailure();
+    }
+
+    private void startThreads(boolean untilEmpty, boolean daemon) {
+        threads = new Thread[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            int counter = i;
+            stats[i].start();
+            threads[i] = new Thread(() -> serve(counter, untilEmpty), "counter-" + i);
+            threads[i].setDaemon(daemon);
+            threads[i].start();
+        }
+    }
+
+    private void joinThreads() {
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    // Counters cannot be abandoned mid-customer; finish waiting and pass it on
+                    interrupted = true;
+                }
+            }
+        }
+        threads = null;
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void serve(int counter, boolean untilEmpty) {
+        try {
+            while (running) {
+                if (manager.processNextCustomer(workers[counter], stats[counter]) == null) {
+                    if (untilEmpty) {
+                        return;
+                    }
+                    LockSupport.parkNanos(IDLE_NANOS);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Counter " + counter + " stopped: " + e.getMessage());
+            if (!failure.compareAndSet(null, e)) {
+                failure.get().addSuppressed(e);
+            }
+        } finally {
+            stats[counter].stop();
+        }
+    }
+
+    private void rethrowFailure() {
+        RuntimeException first = failure.getAndSet(null);
+        if (first != null) {
+            throw first;
+        }
+    }
+
+    private long servedCustomers() {
+        long served = 0;
+        for (CounterStats counterStats : stats) {
+            served += counterStats.getCustomers();
+        }
+        return served;
+    }
+}
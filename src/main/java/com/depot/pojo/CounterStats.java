@@ -0,0 +1,88 @@
+package com.depot.pojo;
+
+// Service metrics of one collection counter in a CounterPool. Latencies are the time from taking
+// a customer off the queue to having its charges recorded, kept in a histogram of power-of-two
+// nanosecond buckets, so percentiles are accurate to within a factor of two.
+public class CounterStats {
+    private final int counter;
+    private final long[] buckets = new long[64];
+    private long customers;
+    private long parcels;
+    private double fees;
+    private long busyNanos;
+    private long minNanos = Long.MAX_VALUE;
+    private long maxNanos;
+    private long startNanos;
+    private long stopNanos;
+
+    CounterStats(int counter) {
+        this.counter = counter;
+    }
+
+    synchronized void start() {
+        startNanos = System.nanoTime();
+        stopNanos = 0;
+    }
+
+    synchronized void stop() {
+        stopNanos = System.nanoTime();
+    }
+
+    synchronized void record(long nanos, int parcelCount, float fee) {
+        customers++;
+        parcels += parcelCount;
+        fees += fee;
+        busyNanos += nanos;
+        minNanos = Math.min(minNanos, nanos);
+        maxNanos = Math.max(maxNanos, nanos);
+        buckets[63 - Long.numberOfLeadingZeros(Math.max(nanos, 1))]++;
+    }
+
+    public int getCounter() { return counter; }
+    public synchronized long getCustomers() { return customers; }
+    public synchronized long getParcels() { return parcels; }
+    public synchronized double getFees() { return fees; }
+    public synchronized long getBusyNanos() { return busyNanos; }
+    public synchronized long getMinNanos() { return customers == 0 ? 0 : minNanos; }
+    public synchronized long getMaxNanos() { return maxNanos; }
+
+    public synchronized long getMeanNanos() {
+        return customers == 0 ? 0 : busyNanos / customers;
+    }
+
+    // Customers served per second of the counter's running time
+    public synchronized double getThroughput() {
+        long end = stopNanos != 0 ? stopNanos : System.nanoTime();
+        return startNanos == 0 || end == startNanos ? 0 : customers * 1e9 / (end - startNanos);
+    }
+
+    // Share of the running time spent serving customers rather than waiting for them
+    public synchronized double getUtilization() {
+        long end = stopNanos != 0 ? stopNanos : System.nanoTime();
+        return startNanos == 0 || end == startNanos ? 0 : Math.min(1.0, (double) busyNanos / (end - startNanos));
+    }
+
+    // Upper bound of the bucket holding the given percentile (0-100) of service times
+    public synchronized long getPercentileNanos(double percentile) {
+        if (customers == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(customers * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(maxNanos, i == 62 ? Long.MAX_VALUE : (2L << i) - 1);
+            }
+        }
+        return maxNanos;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Counter %d: %,d customers, %,d parcels, %.2f fees, %,.0f customers/s, "
+                + "%.0f%% busy, latency mean %.1f us p50 %.1f us p99 %.1f us max %.1f us",
+            counter, customers, parcels, fees, getThroughput(), getUtilization() * 100,
+            getMeanNanos() / 1e3, getPercentileNanos(50) / 1e3, getPercentileNanos(99) / 1e3, maxNanos / 1e3);
+    }
+}
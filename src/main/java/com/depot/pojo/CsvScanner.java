@@ -0,0 +1,183 @@
+package com.depot.pojo;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+// Line and field scanner working directly on the bytes of a CSV file. Lines end at "\n",
+// "\r" or "\r\n" like BufferedReader.readLine; fields are trimmed like String.trim and numbers
+// are parsed without building intermediate Strings whenever the text is a plain decimal.
+// Text is decoded with the platform charset, as the FileReader-based loaders did.
+class CsvScanner {
+    private static final Charset CHARSET = Charset.defaultCharset();
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private final ByteBuffer buf;
+    private final int limit;
+    private final boolean endOfInput;
+    private int position;
+    private long lineNumber;
+    private int lineStart;
+    private int lineEnd;
+
+    // Scans buf[from, to). Unless endOfInput is set, a trailing line without terminator is left
+    // unconsumed so the caller can continue it in the next buffer.
+    CsvScanner(ByteBuffer buf, int from, int to, boolean endOfInput, long firstLineNumber) {
+        this.buf = buf;
+        this.position = from;
+        this.limit = to;
+        this.endOfInput = endOfInput;
+        this.lineNumber = firstLineNumber - 1;
+    }
+
+    boolean nextLine() {
+        if (position >= limit) {
+            return false;
+        }
+        int i = position;
+        while (i < limit) {
+            byte b = buf.get(i);
+            if (b == '\n' || b == '\r') {
+                break;
+            }
+            i++;
+        }
+        int next;
+        if (i == limit) {
+            if (!endOfInput) {
+                return false;
+            }
+            next = limit;
+        } else if (buf.get(i) == '\r') {
+            if (i + 1 == limit && !endOfInput) {
+                // "\r" might be the first half of "\r\n" in the next buffer
+                return false;
+            }
+            next = i + 1 < limit && buf.get(i + 1) == '\n' ? i + 2 : i + 1;
+        } else {
+            next = i + 1;
+        }
+        lineStart = position;
+        lineEnd = i;
+        position = next;
+        lineNumber++;
+        return true;
+    }
+
+    int getPosition() { return position; }
+    long getLineNumber() { return lineNumber; }
+    int getLineStart() { return lineStart; }
+    int getLineEnd() { return lineEnd; }
+    ByteBuffer getBuffer() { return buf; }
+
+    // Index of the next separator in [from, lineEnd), or lineEnd when there is none
+    int indexOf(byte separator, int from) {
+        for (int i = from; i < lineEnd; i++) {
+            if (buf.get(i) == separator) {
+                return i;
+            }
+        }
+        return lineEnd;
+    }
+
+    int trimStart(int from, int to) {
+        while (from < to && (buf.get(from) & 0xFF) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    int trimEnd(int from, int to) {
+        while (to > from && (buf.get(to - 1) & 0xFF) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    String string(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buf.get(from + i);
+        }
+        return new String(bytes, CHARSET);
+    }
+
+    String line() {
+        return string(lineStart, lineEnd);
+    }
+
+    // Same result as Integer.parseInt on the trimmed text
+    int parseInt(int from, int to) {
+        int start = trimStart(from, to);
+        int end = trimEnd(start, to);
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+        if (i == end || end - i > 9) {
+            return Integer.parseInt(string(start, end));
+        }
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = buf.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.parseInt(string(start, end));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    // Same result as Float.parseFloat on the trimmed text
+    float parseFloat(int from, int to) {
+        int start = trimStart(from, to);
+        int end = trimEnd(start, to);
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            byte b = buf.get(i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (seenPoint) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                return Float.parseFloat(string(start, end));
+            }
+        }
+        if (digits == 0 || digits > 15) {
+            return Float.parseFloat(string(start, end));
+        }
+        float result;
+        if (fractionDigits == 0) {
+            result = (float) mantissa;
+        } else {
+            // Both operands are exact doubles, so the quotient is correctly rounded; narrowing
+            // to float is then exact unless the double sits precisely on a float midpoint.
+            double value = mantissa / POWERS_OF_TEN[fractionDigits];
+            result = (float) value;
+            double narrowed = result;
+            if (narrowed != value) {
+                float other = value > narrowed ? Math.nextUp(result) : Math.nextDown(result);
+                if ((narrowed + (double) other) * 0.5 == value) {
+                    return Float.parseFloat(string(start, end));
+                }
+            }
+        }
+        return negative ? -result : result;
+    }
+}
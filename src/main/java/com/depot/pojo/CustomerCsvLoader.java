@@ -0,0 +1,68 @@
+package com.depot.pojo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Parses Custs.csv rows (name,parcelId;parcelId;...) from bytes, accepting exactly the rows
+// Manager.loadCustomersFromFile accepts. Sequence numbers are not assigned here: the caller
+// numbers the rows in file order.
+public class CustomerCsvLoader {
+    public static class Row {
+        private final String name;
+        private final List<String> parcelIds;
+
+        Row(String name, List<String> parcelIds) {
+            this.name = name;
+            this.parcelIds = parcelIds;
+        }
+
+        public String getName() { return name; }
+        public List<String> getParcelIds() { return parcelIds; }
+    }
+
+    static void parseRows(CsvScanner scanner, Consumer<Row> sink, LoadReport report) {
+        while (scanner.nextLine()) {
+            Row row = parseRow(scanner);
+            if (row != null) {
+                sink.accept(row);
+                report.rowLoaded();
+            }
+        }
+    }
+
+    private static Row parseRow(CsvScanner scanner) {
+        int lineEnd = scanner.getLineEnd();
+        int nameEnd = scanner.indexOf((byte) ',', scanner.getLineStart());
+        if (nameEnd == lineEnd) {
+            return null;
+        }
+        int idsEnd = scanner.indexOf((byte) ',', nameEnd + 1);
+
+        // Like String.split(","), the row needs a non-empty field after the name
+        boolean hasSecondField = false;
+        for (int from = nameEnd + 1; from <= lineEnd && !hasSecondField; ) {
+            int to = scanner.indexOf((byte) ',', from);
+            hasSecondField = to > from;
+            from = to + 1;
+        }
+        if (!hasSecondField) {
+            return null;
+        }
+
+        int nameStart = scanner.trimStart(scanner.getLineStart(), nameEnd);
+        String name = scanner.string(nameStart, scanner.trimEnd(nameStart, nameEnd));
+        List<String> parcelIds = new ArrayList<>(2);
+        int from = nameEnd + 1;
+        while (from <= idsEnd) {
+            int to = Math.min(scanner.indexOf((byte) ';', from), idsEnd);
+            int start = scanner.trimStart(from, to);
+            int end = scanner.trimEnd(start, to);
+            if (end > start) {
+                parcelIds.add(scanner.string(start, end));
+            }
+            from = to + 1;
+        }
+        return new Row(name, parcelIds);
+    }
+}
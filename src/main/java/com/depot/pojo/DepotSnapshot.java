@@ -0,0 +1,276 @@
+package com.depot.pojo;
+
+import com.depot.pojo.common.Customer;
+import com.depot.pojo.common.Dimension;
+import com.depot.pojo.common.Parcel;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// Binary snapshot of the full depot state: sequence counter, customer queue in order, parcels,
+// processed parcel IDs and revenue ledger charges. Layout (big-endian): magic, u16 version,
+// u16 flags, i64 creation time, i64 last mutation journal LSN, i64 depot clock epoch day
+// (parcel storage days are relative to it), then each section as an i32 count followed by its
+// records, and a CRC32 of all preceding bytes as trailer. Strings are a varint byte length plus
+// UTF-8. Snapshots are written to a temporary file and atomically renamed, and restored from a
+// memory-mapped view.
+public class DepotSnapshot {
+    static final int MAGIC = 0x4450534E;
+    static final short VERSION = 1;
+
+    public static void write(Manager manager, Path file) throws IOException {
+        write(manager, file, 0);
+    }
+
+    // journalLsn: every MutationJournal record up to and including this LSN is in the snapshot
+    static void write(Manager manager, Path file, long journalLsn) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream raw = Channels.newOutputStream(channel);
+            CheckedOutputStream checked = new CheckedOutputStream(raw, new CRC32());
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked, 1 << 16));
+
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(0);
+            out.writeLong(System.currentTimeMillis());
+            out.writeLong(journalLsn);
+            out.writeLong(manager.getClock().today());
+            out.writeInt(manager.getSequenceCounter());
+
+            QueOfCustomers queue = manager.getCustomerQueue();
+            out.writeInt(queue.getSize());
+            for (Customer customer : queue.getCustomers()) {
+                out.writeInt(customer.getSequenceNum());
+                writeString(out, customer.getName());
+                String[] parcelIds = customer.getParcels(0);
+                out.writeInt(parcelIds.length);
+                for (String parcelId : parcelIds) {
+                    writeString(out, parcelId);
+                }
+            }
+
+            ParcelMap parcelMap = manager.getParcelMap();
+            out.writeInt(parcelMap.size());
+            for (Parcel parcel : parcelMap.getAllParcels().values()) {
+                writeString(out, parcel.getID());
+                out.writeInt(parcel.getDays());
+                out.writeFloat(parcel.getWeight());
+                out.writeFloat(parcel.getDimension().getLength());
+                out.writeFloat(parcel.getDimension().getWidth());
+                out.writeFloat(parcel.getDimension().getHeight());
+            }
+
+            Set<String> processed = manager.getProcessedParcels();
+            out.writeInt(processed.size());
+            for (String parcelId : processed) {
+                writeString(out, parcelId);
+            }
+
+            RevenueLedger ledger = manager.getLedger();
+            out.writeInt(ledger.getChargeCount());
+            for (int i = 0; i < ledger.getChargeCount(); i++) {
+                RevenueLedger.Charge charge = ledger.getCharge(i);
+                out.writeLong(charge.getDate().toEpochDay());
+                out.writeInt(charge.getCustomerSeq());
+                writeString(out, charge.getParcelId());
+                out.writeFloat(charge.getFee());
+            }
+
+            out.flush();
+            ByteBuffer trailer = ByteBuffer.allocate(4).putInt((int) checked.getChecksum().getValue());
+            trailer.flip();
+            while (trailer.hasRemaining()) {
+                channel.write(trailer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Returns the journal LSN the snapshot was taken at, 0 when it was not taken by a journal
+    public static long restore(Path file, Manager manager) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + file);
+            }
+            if (size < 24) {
+                throw new IOException("Not a depot snapshot: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a depot snapshot: " + file);
+            }
+            int version = buffer.getShort(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            CRC32 crc = new CRC32();
+            ByteBuffer body = buffer.duplicate();
+            body.limit((int) size - 4);
+            crc.update(body);
+            if ((int) crc.getValue() != buffer.getInt((int) size - 4)) {
+                throw new IOException("Snapshot checksum mismatch: " + file);
+            }
+
+            buffer.position(16);
+            buffer.limit((int) size - 4);
+            long journalLsn = buffer.getLong();
+            // Parcels below are rebuilt from their storage days against the saved date; the
+            // manager's clock only moves to it once the whole snapshot has been read
+            long today = buffer.getLong();
+            int sequenceCounter = buffer.getInt();
+
+            int customerCount = buffer.getInt();
+            List<Customer> customers = new ArrayList<>(customerCount);
+            for (int i = 0; i < customerCount; i++) {
+                Customer customer = new Customer(buffer.getInt(), readString(buffer));
+                int parcelCount = buffer.getInt();
+                for (int j = 0; j < parcelCount; j++) {
+                    customer.addParcel(readString(buffer));
+                }
+                customers.add(customer);
+            }
+
+            int parcelCount = buffer.getInt();
+            List<Parcel> parcels = new ArrayList<>(parcelCount);
+            for (int i = 0; i < parcelCount; i++) {
+                String id = readString(buffer);
+                int days = buffer.getInt();
+                float weight = buffer.getFloat();
+                Dimension dimension = new Dimension(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+                parcels.add(Parcel.arrived(manager.getClock(), id, today - days, weight, dimension));
+            }
+
+            int processedCount = buffer.getInt();
+            List<String> processed = new ArrayList<>(processedCount);
+            for (int i = 0; i < processedCount; i++) {
+                processed.add(readString(buffer));
+            }
+
+            RevenueLedger ledger = new RevenueLedger();
+            int chargeCount = buffer.getInt();
+            for (int i = 0; i < chargeCount; i++) {
+                ledger.record(buffer.getLong(), buffer.getInt(), readString(buffer), buffer.getFloat());
+            }
+
+            manager.restoreState(today, sequenceCounter, customers, parcels, processed, ledger);
+            return journalLsn;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated snapshot: " + file);
+        }
+    }
+
+    // Writes the depot back out as Custs.csv / Parcels.csv files for interop. Loading them gives
+    // the same queue order and parcels, but sequence numbers restart at 1 and processed parcels
+    // have no CSV representation.
+    public static void exportCsv(Manager manager, Path customerFile, Path parcelFile) throws IOException {
+        exportCustomers(manager, customerFile);
+        exportParcels(manager, parcelFile);
+    }
+
+    static void exportCustomers(Manager manager, Path file) throws IOException {
+        writeCsv(file, writer -> {
+            for (Customer customer : manager.getCustomerQueue().getCustomers()) {
+                writer.write(customer.getName());
+                writer.write(',');
+                writer.write(String.join(";", customer.getParcels(0)));
+                writer.write('\n');
+            }
+        });
+    }
+
+    static void exportParcels(Manager manager, Path file) throws IOException {
+        writeCsv(file, writer -> {
+            for (Parcel parcel : manager.getParcelMap().getAllParcels().values()) {
+                writer.write(parcel.getID());
+                writer.write(',');
+                writer.write(Integer.toString(parcel.getDays()));
+                writer.write(',');
+                writer.write(formatFloat(parcel.getWeight()));
+                writer.write(',');
+                writer.write(formatFloat(parcel.getDimension().getLength()));
+                writer.write(',');
+                writer.write(formatFloat(parcel.getDimension().getWidth()));
+                writer.write(',');
+                writer.write(formatFloat(parcel.getDimension().getHeight()));
+                writer.write('\n');
+            }
+        });
+    }
+
+    private interface CsvRows {
+        void writeTo(BufferedWriter writer) throws IOException;
+    }
+
+    // Like write(): a temporary file, forced and then renamed over the target, so a failed export
+    // leaves the previous file whole. The files may be the ones the depot was loaded from.
+    // Platform charset like the loaders; unmappable characters are replaced instead of failing.
+    private static void writeCsv(Path file, CsvRows rows) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(Channels.newOutputStream(channel), Charset.defaultCharset()));
+            rows.writeTo(writer);
+            writer.flush();
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Shortest text that parses back to the same float; whole numbers without a fraction
+    private static String formatFloat(float value) {
+        if (value == (int) value && Math.abs(value) < 1e7f && Float.floatToIntBits(value) != 0x80000000) {
+            return Integer.toString((int) value);
+        }
+        return Float.toString(value);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+        while ((length & ~0x7F) != 0) {
+            out.writeByte((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        out.writeByte(length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
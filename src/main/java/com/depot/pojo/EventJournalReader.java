@@ -0,0 +1,236 @@
+package com.depot.pojo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Streaming reader for journals written by EventJournalWriter. The file is memory-mapped and
+// every record is exposed through one reusable Record, so replaying or filtering does not
+// allocate per event; strings are only decoded when a visitor asks for them. Replay ends at the
+// first record that is torn (e.g. by a crash) or malformed: an unknown type, or fields that do
+// not add up to the record's length.
+public class EventJournalReader implements Closeable {
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    public class Record {
+        private LogEventType type;
+        private long epochMillis;
+        private int parcelOffset = -1;
+        private int customerSeq;
+        private float fee;
+        private int textOffset = -1;
+
+        public LogEventType getType() { return type; }
+        public long getEpochMillis() { return epochMillis; }
+        public int getCustomerSeq() { return customerSeq; }
+        public float getFee() { return fee; }
+
+        public String getParcelId() {
+            return parcelOffset < 0 ? null : readString(parcelOffset);
+        }
+
+        public String getText() {
+            return textOffset < 0 ? null : readString(textOffset);
+        }
+
+        public LogEvent toEvent() {
+            return new LogEvent(type, epochMillis, getParcelId(), customerSeq, fee, getText());
+        }
+    }
+
+    private final Record record = new Record();
+
+    public EventJournalReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        if (size >= EventJournalWriter.HEADER_SIZE) {
+            map(0);
+        }
+        if (size < EventJournalWriter.HEADER_SIZE
+                || window.getInt(0) != EventJournalWriter.MAGIC
+                || window.get(4) != EventJournalWriter.VERSION) {
+            channel.close();
+            throw new IOException("Not an event journal: " + file);
+        }
+    }
+
+    public long replay(Consumer<Record> visitor) throws IOException {
+        return replay(null, null, visitor);
+    }
+
+    // Visits the records matching every given criterion; a null criterion matches everything.
+    // Non-matching records are skipped by length without being decoded.
+    public long replay(Set<LogEventType> types, String parcelId, Consumer<Record> visitor) throws IOException {
+        byte[] wanted = parcelId == null ? null : parcelId.getBytes(StandardCharsets.UTF_8);
+        long position = EventJournalWriter.HEADER_SIZE;
+        long visited = 0;
+        for (long next; (next = next(position)) >= 0; position = next) {
+            int offset = (int) (position - windowStart) + 2;
+            LogEventType type = LogEventType.lookup(window.get(offset));
+            if (types != null && !types.contains(type)) {
+                continue;
+            }
+            if (wanted != null && (!type.hasParcel() || !matches(offset + 9, wanted))) {
+                continue;
+            }
+            decode(type, offset);
+            visitor.accept(record);
+            visited++;
+        }
+        return visited;
+    }
+
+    // End of the last well-formed record; anything after it is a torn or corrupt tail
+    long validEnd() throws IOException {
+        long position = EventJournalWriter.HEADER_SIZE;
+        long next;
+        while ((next = next(position)) >= 0) {
+            position = next;
+        }
+        return position;
+    }
+
+    // Position after the record at position, or -1 if no well-formed record starts there.
+    // Leaves the record addressable through the current window.
+    private long next(long position) throws IOException {
+        if (!ensure(position, 2)) {
+            return -1;
+        }
+        int length = window.getShort((int) (position - windowStart)) & 0xFFFF;
+        if (length < 9 || !ensure(position, 2 + length)) {
+            return -1;
+        }
+        int offset = (int) (position - windowStart) + 2;
+        LogEventType type = LogEventType.lookup(window.get(offset));
+        if (type == null || !wellFormed(type, offset, length)) {
+            return -1;
+        }
+        return position + 2 + length;
+    }
+
+    // The type's fields end exactly where the record does
+    private boolean wellFormed(LogEventType type, int offset, int length) {
+        int end = offset + length;
+        int pos = offset + 9;
+        if (type.hasParcel()) {
+            if (pos + 2 > end) {
+                return false;
+            }
+            pos += 2 + (window.getShort(pos) & 0xFFFF);
+        }
+        if (type.hasCustomer()) {
+            pos += 4;
+        }
+        if (type.hasFee()) {
+            pos += 4;
+        }
+        if (type.hasText()) {
+            if (pos + 2 > end) {
+                return false;
+            }
+            pos += 2 + (window.getShort(pos) & 0xFFFF);
+        }
+        return pos == end;
+    }
+
+    // Produces the warehouse_log.txt text for the whole journal
+    public void renderText(Appendable out) throws IOException {
+        LogEvent.Formatter formatter = new LogEvent.Formatter();
+        IOException[] failure = new IOException[1];
+        replay(r -> {
+            if (failure[0] != null) {
+                return;
+            }
+            try {
+                out.append(formatter.format(r.getType(), r.getEpochMillis(), r.getParcelId(),
+                    r.getCustomerSeq(), r.getFee(), r.getText()));
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void decode(LogEventType type, int offset) {
+        int pos = offset + 1;
+        record.type = type;
+        record.epochMillis = window.getLong(pos);
+        pos += 8;
+        record.parcelOffset = -1;
+        record.textOffset = -1;
+        record.customerSeq = 0;
+        record.fee = 0f;
+        if (type.hasParcel()) {
+            record.parcelOffset = pos;
+            pos += 2 + (window.getShort(pos) & 0xFFFF);
+        }
+        if (type.hasCustomer()) {
+            record.customerSeq = window.getInt(pos);
+            pos += 4;
+        }
+        if (type.hasFee()) {
+            record.fee = window.getFloat(pos);
+            pos += 4;
+        }
+        if (type.hasText()) {
+            record.textOffset = pos;
+        }
+    }
+
+    private boolean matches(int offset, byte[] wanted) {
+        if ((window.getShort(offset) & 0xFFFF) != wanted.length) {
+            return false;
+        }
+        for (int i = 0; i < wanted.length; i++) {
+            if (window.get(offset + 2 + i) != wanted[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readString(int offset) {
+        int length = window.getShort(offset) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        ByteBuffer view = window.duplicate();
+        view.position(offset + 2);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Makes [position, position + needed) addressable through the current window
+    private boolean ensure(long position, int needed) throws IOException {
+        if (position + needed > size) {
+            return false;
+        }
+        if (position >= windowStart && position + needed <= windowStart + window.limit()) {
+            return true;
+        }
+        map(position);
+        return true;
+    }
+
+    private void map(long position) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+        windowStart = position;
+    }
+}
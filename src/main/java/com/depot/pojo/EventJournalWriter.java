@@ -0,0 +1,119 @@
+package com.depot.pojo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Compact binary journal of depot events. The file starts with a 5 byte header (magic,
+// version); every record is [u16 body length][u8 type][i64 epoch millis] followed by the
+// fields the type's layout declares: parcel ID (u16 length + UTF-8), customer sequence
+// number (i32), fee (f32), text (u16 length + UTF-8). Reopening an existing journal drops a
+// torn or corrupt tail first (see EventJournalReader), so new records follow the last good one.
+// Not thread-safe: Log only ever touches it from the writer thread.
+public class EventJournalWriter implements Closeable {
+    static final int MAGIC = 0x44454A31;
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 5;
+    static final int MAX_STRING_BYTES = 16 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    public EventJournalWriter(Path file) throws IOException {
+        this(file, 64 * 1024);
+    }
+
+    public EventJournalWriter(Path file, int bufferSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, 2 * MAX_STRING_BYTES + 64));
+        if (channel.size() == 0) {
+            buffer.putInt(MAGIC).put(VERSION);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.get() != VERSION) {
+                channel.close();
+                throw new IOException("Not an event journal: " + file);
+            }
+            long validEnd;
+            try (EventJournalReader reader = new EventJournalReader(file)) {
+                validEnd = reader.validEnd();
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            if (validEnd < channel.size()) {
+                System.err.println("Discarding " + (channel.size() - validEnd) + " bytes of torn event journal tail: " + file);
+                channel.truncate(validEnd);
+            }
+        }
+        channel.position(channel.size());
+    }
+
+    public void append(LogEvent event) throws IOException {
+        append(event.getType(), event.getEpochMillis(), event.getParcelId(),
+            event.getCustomerSeq(), event.getFee(), event.getText());
+    }
+
+    public void append(LogEventType type, long epochMillis, String parcelId, int customerSeq,
+                       float fee, String text) throws IOException {
+        if (buffer.remaining() < 2 * MAX_STRING_BYTES + 32) {
+            flush();
+        }
+        int start = buffer.position();
+        buffer.putShort((short) 0);
+        buffer.put(type.getCode());
+        buffer.putLong(epochMillis);
+        if (type.hasParcel()) {
+            putString(parcelId);
+        }
+        if (type.hasCustomer()) {
+            buffer.putInt(customerSeq);
+        }
+        if (type.hasFee()) {
+            buffer.putFloat(fee);
+        }
+        if (type.hasText()) {
+            putString(text);
+        }
+        buffer.putShort(start, (short) (buffer.position() - start - 2));
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void putString(String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+        if (length > MAX_STRING_BYTES) {
+            // Truncate on a UTF-8 character boundary
+            length = MAX_STRING_BYTES;
+            while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+                length--;
+            }
+        }
+        buffer.putShort((short) length);
+        buffer.put(bytes, 0, length);
+    }
+}
@@ -0,0 +1,11 @@
+package com.depot.pojo;
+
+// Batch fee and size class computation behind Worker's batch APIs, for linear tariffs (see
+// Tariff.isLinear). Implementations must give exactly the results of Tariff.fee and
+// Tariff.sizeClass.
+interface FeeKernel {
+    void fees(ParcelBatch batch, float[] out, float weightRate, float volumeRate, float dayRate);
+
+    // Size class per parcel: 0 small, 1 medium, 2 large (see Worker.sizeClassName)
+    void sizeClasses(ParcelBatch batch, int[] out, float mediumAbove, float largeAbove);
+}
@@ -0,0 +1,60 @@
+package com.depot.pojo;
+
+import com.depot.pojo.common.Dimension;
+import com.depot.pojo.common.LongHashMap;
+import com.depot.pojo.common.Parcel;
+import com.depot.pojo.common.ParcelIdCodec;
+
+import java.util.Collection;
+import java.util.Map;
+
+// Default store: the Parcel objects themselves, keyed by ParcelIdCodec code
+public class HashParcelStore implements ParcelStore {
+    private final ParcelIdCodec codec = ParcelIdCodec.getInstance();
+    private final LongHashMap<Parcel> parcels = new LongHashMap<>();
+    private final Map<String, Parcel> view = new ParcelStoreMapView(this);
+
+    @Override
+    public Parcel get(long code) {
+        return parcels.get(code);
+    }
+
+    @Override
+    public Parcel put(Parcel parcel) {
+        return parcels.put(codec.encode(parcel.getID()), parcel);
+    }
+
+    @Override
+    public Parcel remove(long code) {
+        return parcels.remove(code);
+    }
+
+    @Override
+    public int size() {
+        return parcels.size();
+    }
+
+    @Override
+    public void clear() {
+        parcels.clear();
+    }
+
+    @Override
+    public Collection<Parcel> values() {
+        return parcels.values();
+    }
+
+    @Override
+    public Map<String, Parcel> asMap() {
+        return view;
+    }
+
+    @Override
+    public void scan(RowVisitor visitor) {
+        for (Parcel parcel : parcels.values()) {
+            Dimension dimension = parcel.getDimension();
+            visitor.visit(parcel.getDays(), parcel.getWeight(),
+                dimension.getLength(), dimension.getWidth(), dimension.getHeight());
+        }
+    }
+}
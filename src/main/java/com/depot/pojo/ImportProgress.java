@@ -0,0 +1,51 @@
+package com.depot.pojo;
+
+// Snapshot of a running StreamingImport, handed to its listener after every applied batch
+public class ImportProgress {
+    public enum Phase { CUSTOMERS, PARCELS }
+
+    private final Phase phase;
+    private final long rows;
+    private final long bytesRead;
+    private final long totalBytes;
+    private final long elapsedMillis;
+
+    ImportProgress(Phase phase, long rows, long bytesRead, long totalBytes, long elapsedMillis) {
+        this.phase = phase;
+        this.rows = rows;
+        this.bytesRead = bytesRead;
+        this.totalBytes = totalBytes;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public Phase getPhase() { return phase; }
+    public long getRows() { return rows; }
+    public long getBytesRead() { return bytesRead; }
+    public long getTotalBytes() { return totalBytes; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? 0 : rows * 1000.0 / elapsedMillis;
+    }
+
+    public int getPercent() {
+        return totalBytes == 0 ? 100 : (int) (bytesRead * 100 / totalBytes);
+    }
+
+    // Estimated time to finish, extrapolated from the byte throughput so far; -1 when unknown
+    public long getEtaMillis() {
+        if (bytesRead == 0) {
+            return -1;
+        }
+        return (long) ((double) elapsedMillis * (totalBytes - bytesRead) / bytesRead);
+    }
+
+    @Override
+    public String toString() {
+        long eta = getEtaMillis();
+        return String.format("Loading %s: %,d rows, %.1f / %.1f MB, %,.0f rows/s, ETA %s",
+            phase == Phase.CUSTOMERS ? "customers" : "parcels", rows,
+            bytesRead / 1048576.0, totalBytes / 1048576.0, getRowsPerSecond(),
+            eta < 0 ? "-" : (eta / 1000) + "s");
+    }
+}
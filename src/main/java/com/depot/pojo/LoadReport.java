@@ -0,0 +1,72 @@
+package com.depot.pojo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of loading a data file: how many rows were loaded and which rows were rejected.
+// Only the first MAX_ERRORS rejected rows are kept in detail; getErrorCount() has the total.
+public class LoadReport {
+    public static final int MAX_ERRORS = 1000;
+
+    public static class RowError {
+        private final long line;
+        private final String message;
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() { return line; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + message;
+        }
+    }
+
+    private long loadedCount;
+    private long errorCount;
+    private final List<RowError> errors = new ArrayList<>();
+
+    void rowLoaded() {
+        loadedCount++;
+    }
+
+    void rowRejected(long line, String message) {
+        errorCount++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    // Appends a report for a later part of the same file whose line numbers start at 1
+    void merge(LoadReport part, long lineOffset) {
+        loadedCount += part.loadedCount;
+        for (RowError error : part.errors) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(new RowError(error.line + lineOffset, error.message));
+            }
+        }
+        errorCount += part.errorCount;
+    }
+
+    public long getLoadedCount() { return loadedCount; }
+    public long getErrorCount() { return errorCount; }
+    public boolean hasErrors() { return errorCount > 0; }
+
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    void printErrors(String fileKind) {
+        for (RowError error : errors) {
+            System.err.println("Skipped malformed " + fileKind + " row at " + error);
+        }
+        if (errorCount > errors.size()) {
+            System.err.println("... " + (errorCount - errors.size()) + " more malformed " + fileKind + " rows");
+        }
+    }
+}
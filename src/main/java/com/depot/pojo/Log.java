@@ -1,41 +1,93 @@
 package com.depot.pojo;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 public class Log {
-    private static Log instance;
-    private StringBuffer logs;
     private static final String LOG_FILE = "warehouse_log.txt";
-    private DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final LogHistory logs;
+    private final LogWriter writer;
+
+    // Initialization-on-demand holder: the JVM guarantees a single, safely published instance
+    private static class Holder {
+        private static final Log INSTANCE = new Log();
+    }
 
     private Log() {
-        logs = new StringBuffer();
+        logs = new LogHistory(
+            Long.getLong("depot.log.historyEntries", 100_000L),
+            Long.getLong("depot.log.historyBytes", 32L * 1024 * 1024));
+        writer = new LogWriter(
+            Paths.get(System.getProperty("depot.log.file", LOG_FILE)),
+            Integer.getInteger("depot.log.bufferCapacity", 8192),
+            Integer.getInteger("depot.log.flushBytes", 64 * 1024),
+            Long.getLong("depot.log.flushIntervalMs", 200L),
+            LogWriter.OverflowPolicy.valueOf(System.getProperty("depot.log.overflow", "BLOCK")),
+            logs::append);
+        writer.start();
+        String journal = System.getProperty("depot.log.journal");
+        if (journal != null) {
+            try {
+                enableJournal(Paths.get(journal));
+            } catch (IOException e) {
+                System.err.println("打开事件日志失败: " + e.getMessage());
+            }
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(writer::close, "log-writer-shutdown"));
     }
 
     public static Log getInstance() {
-        if (instance == null) {
-            instance = new Log();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
 
     public void addLog(String message) {
-        String timestamp = LocalDateTime.now().format(formatter);
-        String logEntry = String.format("[%s] %s\n", timestamp, message);
-        logs.append(logEntry);
-
-        // 实时写入文件
-        try (FileWriter fw = new FileWriter(LOG_FILE, true)) {
-            fw.write(logEntry);
-        } catch (IOException e) {
-            System.err.println("写入日志文件失败: " + e.getMessage());
-        }
+        addEvent(LogEventType.MESSAGE, null, 0, 0f, message);
+    }
+
+    public void addEvent(LogEventType type) {
+        addEvent(type, null, 0, 0f, null);
+    }
+
+    public void addParcelEvent(LogEventType type, String parcelId) {
+        addEvent(type, parcelId, 0, 0f, null);
+    }
+
+    public void addEvent(LogEventType type, String parcelId, int customerSeq, float fee, String text) {
+        // 无锁入队, 由写线程格式化、追加到历史记录并批量写入文件
+        writer.write(new LogEvent(type, System.currentTimeMillis(), parcelId, customerSeq, fee, text));
+    }
+
+    // Additionally record every event in the binary journal at the given path
+    public void enableJournal(Path file) throws IOException {
+        writer.setJournal(new EventJournalWriter(file));
+    }
+
+    public void disableJournal() {
+        writer.setJournal(null);
     }
 
     public String getLog() {
-        return logs.toString();
+        writer.awaitConsumed();
+        return logs.getText();
+    }
+
+    // Incremental read for views: only the entries logged since the given cursor
+    public LogHistory.Slice getEntriesSince(long cursor) {
+        writer.awaitConsumed();
+        return logs.getEntriesSince(cursor);
+    }
+
+    public long getHistoryMemoryUsage() {
+        return logs.getMemoryUsage();
+    }
+
+    // Wait until all entries logged so far have reached the log file
+    public void flush() {
+        writer.flush();
+    }
+
+    public long getDroppedCount() {
+        return writer.getDroppedCount();
     }
-}
\ No newline at end of file
+}
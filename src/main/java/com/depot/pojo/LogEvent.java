@@ -0,0 +1,59 @@
+package com.depot.pojo;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+// One depot event as enqueued by Log. Formatting to text happens later on the writer thread.
+public class LogEvent {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final LogEventType type;
+    private final long epochMillis;
+    private final String parcelId;
+    private final int customerSeq;
+    private final float fee;
+    private final String text;
+
+    public LogEvent(LogEventType type, long epochMillis, String parcelId, int customerSeq, float fee, String text) {
+        this.type = type;
+        this.epochMillis = epochMillis;
+        this.parcelId = parcelId;
+        this.customerSeq = customerSeq;
+        this.fee = fee;
+        this.text = text;
+    }
+
+    public LogEventType getType() { return type; }
+    public long getEpochMillis() { return epochMillis; }
+    public String getParcelId() { return parcelId; }
+    public int getCustomerSeq() { return customerSeq; }
+    public float getFee() { return fee; }
+    public String getText() { return text; }
+
+    public String getMessage() {
+        return type.render(parcelId, customerSeq, fee, text);
+    }
+
+    // Renders a log line in the warehouse_log.txt format: "[yyyy-MM-dd HH:mm:ss] message\n"
+    public static class Formatter {
+        private long cachedSecond = Long.MIN_VALUE;
+        private String cachedPrefix;
+
+        public String format(LogEventType type, long epochMillis, String parcelId, int customerSeq,
+                             float fee, String text) {
+            long second = Math.floorDiv(epochMillis, 1000L);
+            if (second != cachedSecond) {
+                LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+                cachedPrefix = "[" + time.format(FORMATTER) + "] ";
+                cachedSecond = second;
+            }
+            return cachedPrefix + type.render(parcelId, customerSeq, fee, text) + "\n";
+        }
+
+        public String format(LogEvent event) {
+            return format(event.type, event.epochMillis, event.parcelId, event.customerSeq, event.fee, event.text);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.depot.pojo;
+
+// Typed depot events. Each type fixes the record layout used in the binary journal
+// (which of parcel ID, customer sequence number, fee and text are present) and knows how
+// to render itself as the message text used in warehouse_log.txt.
+public enum LogEventType {
+    MESSAGE(1, false, false, false, true),
+    PARCEL_ADDED(2, true, false, false, false),
+    PARCEL_PROCESSED(3, true, false, false, false),
+    PARCEL_SEARCHED(4, true, false, false, false),
+    PARCEL_NOT_FOUND(5, true, false, false, false),
+    PARCEL_COLLECTED(6, true, false, false, false),
+    PARCEL_STATUS_KEPT(7, true, false, false, false),
+    PARCEL_ASSIGNED(8, true, true, false, true),
+    PARCEL_CHARGED(9, true, true, true, true),
+    CUSTOMER_ADDED(10, false, true, false, true),
+    CUSTOMER_PROCESSED(11, false, true, true, true),
+    CUSTOMER_DELETED(12, false, true, false, true),
+    PARCELS_SORTED(13, false, false, false, false),
+    CUSTOMERS_LOADED(14, false, false, false, false),
+    PARCELS_LOADED(15, false, false, false, false),
+    SYSTEM_INITIALIZED(16, false, false, false, false),
+    REPORT_GENERATED(17, false, false, false, true),
+    COST_QUERY(18, false, false, false, true);
+
+    private static final LogEventType[] BY_CODE = new LogEventType[32];
+
+    static {
+        for (LogEventType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final byte code;
+    private final boolean hasParcel;
+    private final boolean hasCustomer;
+    private final boolean hasFee;
+    private final boolean hasText;
+
+    LogEventType(int code, boolean hasParcel, boolean hasCustomer, boolean hasFee, boolean hasText) {
+        this.code = (byte) code;
+        this.hasParcel = hasParcel;
+        this.hasCustomer = hasCustomer;
+        this.hasFee = hasFee;
+        this.hasText = hasText;
+    }
+
+    public byte getCode() { return code; }
+    public boolean hasParcel() { return hasParcel; }
+    public boolean hasCustomer() { return hasCustomer; }
+    public boolean hasFee() { return hasFee; }
+    public boolean hasText() { return hasText; }
+
+    public static LogEventType fromCode(byte code) {
+        LogEventType type = lookup(code);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown log event type: " + code);
+        }
+        return type;
+    }
+
+    // null for a code no type has, e.g. read from a corrupt journal
+    static LogEventType lookup(byte code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+
+    // Text is the customer name for customer events, the file name or date for the others
+    public String render(String parcelId, int customerSeq, float fee, String text) {
+        switch (this) {
+            case PARCEL_ADDED: return "New parcel added: " + parcelId;
+            case PARCEL_PROCESSED: return "Parcel processed: " + parcelId;
+            case PARCEL_SEARCHED: return "Search parcel: " + parcelId;
+            case PARCEL_NOT_FOUND: return "Parcel not found: " + parcelId;
+            case PARCEL_COLLECTED: return "Update parcel status: " + parcelId + ", collected: true";
+            case PARCEL_STATUS_KEPT: return "Update parcel status: " + parcelId + ", collected: false";
+            case PARCEL_ASSIGNED: return String.format("Parcel %s assigned to customer %s", parcelId, text);
+            case PARCEL_CHARGED: return String.format("处理客户[%s]的包裹[%s], 费用: %.2f", text, parcelId, fee);
+            case CUSTOMER_ADDED: return "New customer added: " + text;
+            case CUSTOMER_PROCESSED:
+                return String.format("Processed all parcels for customer %s, Total cost: %.2f", text, fee);
+            case CUSTOMER_DELETED:
+                return String.format("Customer %s (Sequence number: %d) deleted", text, customerSeq);
+            case PARCELS_SORTED: return "Parcels sorted by size";
+            case CUSTOMERS_LOADED: return "Customers data loaded from file";
+            case PARCELS_LOADED: return "Parcels data loaded from file";
+            case SYSTEM_INITIALIZED: return "System initialization completed";
+            case REPORT_GENERATED: return "Report generated: " + text;
+            case COST_QUERY: return "Calculate total cost for " + text;
+            default: return text;
+        }
+    }
+}
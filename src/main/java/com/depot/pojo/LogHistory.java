@@ -0,0 +1,126 @@
+package com.depot.pojo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Bounded in-memory log history. Entries are kept in fixed-size segments and whole segments
+// are evicted from the head once the entry or byte retention limit is exceeded.
+public class LogHistory {
+    private static final int SEGMENT_SIZE = 512;
+    // Rough per-entry heap cost: String header + backing array header + reference slot
+    private static final long ENTRY_OVERHEAD = 48;
+
+    public static class Slice {
+        private final List<String> entries;
+        private final long nextCursor;
+        private final boolean truncated;
+
+        Slice(List<String> entries, long nextCursor, boolean truncated) {
+            this.entries = entries;
+            this.nextCursor = nextCursor;
+            this.truncated = truncated;
+        }
+
+        public List<String> getEntries() { return entries; }
+        public long getNextCursor() { return nextCursor; }
+        // True when entries older than the requested cursor were already evicted
+        public boolean isTruncated() { return truncated; }
+    }
+
+    private static class Segment {
+        private final long firstCursor;
+        private final String[] entries = new String[SEGMENT_SIZE];
+        private int count;
+        private long bytes;
+
+        Segment(long firstCursor) {
+            this.firstCursor = firstCursor;
+        }
+    }
+
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private final long maxEntries;
+    private final long maxBytes;
+    private long nextCursor;
+    private long retainedEntries;
+    private long retainedBytes;
+
+    public LogHistory(long maxEntries, long maxBytes) {
+        if (maxEntries <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("Log retention must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized long append(String entry) {
+        Segment tail = segments.peekLast();
+        if (tail == null || tail.count == SEGMENT_SIZE) {
+            tail = new Segment(nextCursor);
+            segments.addLast(tail);
+        }
+        long size = ENTRY_OVERHEAD + 2L * entry.length();
+        tail.entries[tail.count++] = entry;
+        tail.bytes += size;
+        retainedEntries++;
+        retainedBytes += size;
+
+        while (segments.size() > 1 && (retainedEntries > maxEntries || retainedBytes > maxBytes)) {
+            Segment head = segments.pollFirst();
+            retainedEntries -= head.count;
+            retainedBytes -= head.bytes;
+        }
+        return nextCursor++;
+    }
+
+    // Entries appended at or after the given cursor, plus the cursor to pass on the next call
+    public synchronized Slice getEntriesSince(long cursor) {
+        long first = getFirstCursor();
+        boolean truncated = cursor < first;
+        long from = Math.max(cursor, first);
+        if (from >= nextCursor) {
+            return new Slice(Collections.emptyList(), nextCursor, truncated);
+        }
+        List<String> result = new ArrayList<>((int) Math.min(Integer.MAX_VALUE, nextCursor - from));
+        for (Segment segment : segments) {
+            long end = segment.firstCursor + segment.count;
+            if (end <= from) {
+                continue;
+            }
+            for (int i = (int) Math.max(0, from - segment.firstCursor); i < segment.count; i++) {
+                result.add(segment.entries[i]);
+            }
+        }
+        return new Slice(result, nextCursor, truncated);
+    }
+
+    public synchronized String getText() {
+        StringBuilder sb = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8, retainedBytes / 2));
+        for (Segment segment : segments) {
+            for (int i = 0; i < segment.count; i++) {
+                sb.append(segment.entries[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    public synchronized long getFirstCursor() {
+        Segment head = segments.peekFirst();
+        return head == null ? nextCursor : head.firstCursor;
+    }
+
+    public synchronized long getNextCursor() {
+        return nextCursor;
+    }
+
+    public synchronized long getRetainedEntries() {
+        return retainedEntries;
+    }
+
+    // Estimated heap cost of the retained entries, in bytes
+    public synchronized long getMemoryUsage() {
+        return retainedBytes + (long) segments.size() * (SEGMENT_SIZE * 4L + 32);
+    }
+}
@@ -0,0 +1,307 @@
+package com.depot.pojo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// Background log pipeline: callers enqueue events into a bounded lock-free ring buffer and a
+// single writer thread formats them and drains them in batches into one long-lived
+// FileChannel, plus the binary event journal when one is attached.
+public class LogWriter implements Closeable {
+    public enum OverflowPolicy { BLOCK, DROP }
+
+    private static final int DRAIN_BATCH = 1024;
+    private static final long WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Path file;
+    private final MpscRingBuffer<LogEvent> ring;
+    private final Consumer<String> listener;
+    private final int flushBytes;
+    private final long flushIntervalMillis;
+    private final OverflowPolicy policy;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong flushRequest = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean closed;
+    private volatile boolean terminated;
+    private volatile boolean sleeping;
+    private volatile long consumed;
+    private volatile long flushed;
+    private volatile EventJournalWriter requestedJournal;
+
+    private final LogEvent.Formatter formatter = new LogEvent.Formatter();
+    private final LogEvent.Formatter lateFormatter = new LogEvent.Formatter();
+    private volatile EventJournalWriter journal;
+
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private long lastWrite;
+
+    public LogWriter(Path file, int capacity, int flushBytes, long flushIntervalMillis, OverflowPolicy policy) {
+        this(file, capacity, flushBytes, flushIntervalMillis, policy, entry -> { });
+    }
+
+    // The listener sees every entry on the writer thread, in queue order, before it is written
+    public LogWriter(Path file, int capacity, int flushBytes, long flushIntervalMillis, OverflowPolicy policy,
+                     Consumer<String> listener) {
+        this.file = file;
+        this.ring = new MpscRingBuffer<>(capacity);
+        this.listener = listener;
+        this.flushBytes = flushBytes;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.policy = policy;
+        this.buffer = ByteBuffer.allocate(flushBytes);
+        this.thread = new Thread(this::run, "log-writer");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    public void write(LogEvent entry) {
+        if (closed) {
+            writeLate(entry);
+            return;
+        }
+        if (!ring.offer(entry)) {
+            if (policy == OverflowPolicy.DROP) {
+                dropped.incrementAndGet();
+                return;
+            }
+            // Back-pressure: wait for the writer to free a slot
+            while (!ring.offer(entry)) {
+                if (closed) {
+                    writeLate(entry);
+                    return;
+                }
+                wakeWriter();
+                LockSupport.parkNanos(WAIT_NANOS);
+            }
+        }
+        wakeWriter();
+        if (terminated) {
+            drainLate();
+        }
+    }
+
+    // Blocks until every entry enqueued before this call has been seen by the listener
+    public void awaitConsumed() {
+        long target = ring.producerPosition();
+        while (consumed < target && !terminated) {
+            wakeWriter();
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+    }
+
+    // Blocks until every entry enqueued before this call has been handed to the file system
+    public void flush() {
+        long target = ring.producerPosition();
+        flushRequest.accumulateAndGet(target, Math::max);
+        while (flushed < target && !terminated) {
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+    }
+
+    // Attaches (or with null detaches) the binary journal; the writer thread closes the old one
+    public void setJournal(EventJournalWriter journal) {
+        flush();
+        requestedJournal = journal;
+        while (this.journal != journal && !terminated) {
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getPendingCount() {
+        return ring.producerPosition() - consumed;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!thread.isAlive()) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void wakeWriter() {
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void run() {
+        lastWrite = System.currentTimeMillis();
+        long position = 0;
+        while (true) {
+            int count = ring.drain(this::append, DRAIN_BATCH);
+            position += count;
+            consumed = position;
+
+            if (journal != requestedJournal) {
+                writeBuffer();
+                switchJournal();
+            }
+            if (flushRequest.get() > flushed) {
+                writeBuffer();
+                flushed = position;
+            } else if (buffer.position() > 0 && System.currentTimeMillis() - lastWrite >= flushIntervalMillis) {
+                writeBuffer();
+            }
+
+            if (count == 0) {
+                if (ring.producerPosition() > position) {
+                    // A producer claimed a slot but has not published it yet
+                    Thread.onSpinWait();
+                } else if (closed) {
+                    break;
+                } else {
+                    sleeping = true;
+                    if (ring.producerPosition() == position && flushRequest.get() <= flushed
+                            && journal == requestedJournal) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis));
+                    }
+                    sleeping = false;
+                }
+            }
+        }
+
+        // Guaranteed flush on shutdown
+        writeBuffer();
+        closeChannel();
+        requestedJournal = null;
+        switchJournal();
+        flushed = position;
+        terminated = true;
+        drainLate();
+    }
+
+    private void append(LogEvent event) {
+        if (journal != null) {
+            try {
+                journal.append(event);
+            } catch (IOException e) {
+                System.err.println("写入事件日志失败: " + e.getMessage());
+            }
+        }
+        String entry = formatter.format(event);
+        listener.accept(entry);
+        byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > buffer.remaining()) {
+            writeBuffer();
+        }
+        if (bytes.length > buffer.capacity()) {
+            writeFully(ByteBuffer.wrap(bytes));
+            return;
+        }
+        buffer.put(bytes);
+        if (buffer.position() >= flushBytes) {
+            writeBuffer();
+        }
+    }
+
+    private void writeBuffer() {
+        lastWrite = System.currentTimeMillis();
+        if (journal != null) {
+            try {
+                journal.flush();
+            } catch (IOException e) {
+                System.err.println("写入事件日志失败: " + e.getMessage());
+            }
+        }
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer data) {
+        try {
+            if (channel == null) {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        } catch (IOException e) {
+            System.err.println("写入日志文件失败: " + e.getMessage());
+        }
+    }
+
+    private void switchJournal() {
+        EventJournalWriter next = requestedJournal;
+        if (journal == next) {
+            return;
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("写入事件日志失败: " + e.getMessage());
+            }
+        }
+        journal = next;
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("写入日志文件失败: " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    // Entries that raced with shutdown are picked up by the producer itself
+    private synchronized void drainLate() {
+        LogEvent entry;
+        while ((entry = ring.poll()) != null) {
+            writeLate(entry);
+        }
+    }
+
+    // Entries arriving after shutdown are appended synchronously so nothing is lost
+    private synchronized void writeLate(LogEvent event) {
+        String entry = lateFormatter.format(event);
+        listener.accept(entry);
+        try (FileChannel fc = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer data = ByteBuffer.wrap(entry.getBytes(StandardCharsets.UTF_8));
+            while (data.hasRemaining()) {
+                fc.write(data);
+            }
+        } catch (IOException e) {
+            System.err.println("写入日志文件失败: " + e.getMessage());
+        }
+    }
+}
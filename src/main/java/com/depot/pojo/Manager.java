@@ -3,90 +3,246 @@ package com.depot.pojo;
 import com.depot.gui.controller.DepotController;
 import com.depot.gui.model.DepotModel;
 import com.depot.gui.view.DepotView;
+import com.depot.pojo.common.ConcurrentLongHashSet;
 import com.depot.pojo.common.Customer;
+import com.depot.pojo.common.DepotClock;
 import com.depot.pojo.common.Dimension;
 import com.depot.pojo.common.Parcel;
+import com.depot.pojo.common.ParcelIdCodec;
 
 import javax.swing.*;
 import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
 
 public class Manager {
+    // Told when a queued customer's parcel list changes, on the thread making the change and
+    // after it is in place. Parcel changes themselves go to ParcelMap.Listener.
+    public interface CustomerListener {
+        void customerParcelsChanged(Customer customer);
+    }
+    
     private QueOfCustomers customerQueue;
     private ParcelMap parcelMap;
+    // This depot's date; parcels in parcelMap age against it
+    private final DepotClock clock;
+    // Which queued customer owns each parcel code, and which owned codes have no parcel
+    private final ParcelOwnerIndex parcelOwners;
     private Worker worker;
-    private Set<String> processedParcels;
+    private final ParcelIdCodec codec = ParcelIdCodec.getInstance();
+    // ParcelIdCodec codes; processedView decodes them for callers
+    private final ConcurrentLongHashSet processedParcels;
+    private final Set<String> processedView = new AbstractSet<String>() {
+        @Override
+        public Iterator<String> iterator() {
+            PrimitiveIterator.OfLong codes = processedParcels.iterator();
+            return new Iterator<String>() {
+                @Override
+                public boolean hasNext() {
+                    return codes.hasNext();
+                }
+                
+                @Override
+                public String next() {
+                    return codec.decode(codes.nextLong());
+                }
+            };
+        }
+        
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof String && isParcelProcessed((String) o);
+        }
+        
+        @Override
+        public int size() {
+            return processedParcels.size();
+        }
+    };
+    private RevenueLedger ledger = new RevenueLedger();
     private int currentSequenceNum = 1;
+    private MutationJournal journal;
+    // Tariff named by the latest journaled tariff record; null until one is written or replayed
+    private Tariff journaledTariff;
+    private String customerCsvFile;
+    private String parcelCsvFile;
+    // Customers claimed by a counter whose charges are not recorded yet, and the number of
+    // threads waiting for them to drain (see awaitCountersIdle)
+    private int inFlight;
+    private int quiescing;
+    private final List<CustomerListener> customerListeners = new CopyOnWriteArrayList<>();
     
     public Manager() {
-        this.customerQueue = new QueOfCustomers();
-        this.parcelMap = new ParcelMap();
+        this.customerQueue = new QueOfCustomers(this);
+        this.clock = new DepotClock();
+        this.parcelMap = new ParcelMap(clock);
+        this.parcelOwners = new ParcelOwnerIndex(parcelMap);
         this.worker = new Worker();
-        this.processedParcels = new HashSet<>();
+        this.processedParcels = new ConcurrentLongHashSet();
     }
     
-    public void initSystem(String customerFile, String parcelFile) {
+    public synchronized void initSystem(String customerFile, String parcelFile) {
         loadCustomersFromFile(customerFile);
         loadParcelsFromFile(parcelFile);
         sortParcels();
-        Log.getInstance().addLog("System initialization completed");
+        Log.getInstance().addEvent(LogEventType.SYSTEM_INITIALIZED);
+    }
+    
+    // Same result as initSystem, but each file is split at line boundaries and parsed in
+    // chunks on a fork-join pool before being merged in file order
+    public synchronized void initSystemParallel(String customerFile, String parcelFile) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        loadCustomersFromFileParallel(customerFile, pool);
+        loadParcelsFromFileParallel(parcelFile, pool);
+        sortParcels();
+        Log.getInstance().addEvent(LogEventType.SYSTEM_INITIALIZED);
     }
     
+    // Lock-free as far as the manager goes (ParcelMap is thread-safe), so lookups from many
+    // request threads do not queue behind processing
     public Parcel searchParcelById(String id) {
         Parcel parcel = parcelMap.getParcel(id);
         if (parcel != null) {
-            Log.getInstance().addLog("Search parcel: " + id);
+            Log.getInstance().addParcelEvent(LogEventType.PARCEL_SEARCHED, id);
         } else {
-            Log.getInstance().addLog("Parcel not found: " + id);
+            Log.getInstance().addParcelEvent(LogEventType.PARCEL_NOT_FOUND, id);
         }
         return parcel;
     }
     
     public void updateParcelStatus(String id, boolean collected) {
-        Parcel parcel = parcelMap.getParcel(id);
-        if (parcel != null) {
-            if (collected) {
-                parcelMap.removeParcel(id);
+        MutationJournal journaled;
+        long lsn = 0;
+        synchronized (this) {
+            journaled = journal;
+            Parcel parcel = parcelMap.getParcel(id);
+            if (parcel == null) {
+                return;
+            }
+            if (!collected) {
+                Log.getInstance().addParcelEvent(LogEventType.PARCEL_STATUS_KEPT, id);
+                return;
+            }
+            if (journaled == null) {
+                applyCollectParcel(id);
+                return;
             }
-            Log.getInstance().addLog("Update parcel status: " + id + ", collected: " + collected);
+            // With a journal, parcels only leave the map under this lock, so it is still there
+            try {
+                lsn = journaled.logCollectParcel(id);
+            } catch (IOException e) {
+                throw journalFailure(e);
+            }
+            applyCollectParcel(id);
+            compactIfNeeded();
+        }
+        awaitCommit(journaled, lsn);
+    }
+    
+    boolean applyCollectParcel(String id) {
+        if (parcelMap.removeParcel(id) == null) {
+            return false;
         }
+        Log.getInstance().addParcelEvent(LogEventType.PARCEL_COLLECTED, id);
+        return true;
     }
     
+    // ParcelMap keeps its size index current on every add and remove, so there is nothing to
+    // rebuild here any more; the sorted order is available from getSortedParcels()
     public void sortParcels() {
-        List<Parcel> parcels = new ArrayList<>(parcelMap.getAllParcels().values());
-        parcels.sort((p1, p2) -> Float.compare(p2.getSize(), p1.getSize()));
-        
-        // 清空并重新添加排序后的包裹
-        parcelMap = new ParcelMap();
-        for (Parcel parcel : parcels) {
-            parcelMap.addParcel(parcel);
+        Log.getInstance().addEvent(LogEventType.PARCELS_SORTED);
+    }
+    
+    public Collection<Parcel> getSortedParcels() {
+        return parcelMap.getParcelsBySize();
+    }
+    
+    public synchronized List<Parcel> getLargestParcels(int count) {
+        return parcelMap.getLargestParcels(count);
+    }
+    
+    public synchronized List<Parcel> getParcelsByVolume(float min, float max) {
+        return parcelMap.getParcelsByVolume(min, max);
+    }
+    
+    // End of a storage day: every parcel in the depot has been stored one day longer
+    public void advanceDay() {
+        MutationJournal journaled;
+        long lsn = 0;
+        synchronized (this) {
+            journaled = journal;
+            if (journaled != null) {
+                try {
+                    lsn = journaled.logAdvanceDays(1);
+                } catch (IOException e) {
+                    throw journalFailure(e);
+                }
+            }
+            applyAdvanceDays(1);
+            if (journaled != null) {
+                compactIfNeeded();
+            }
         }
-        Log.getInstance().addLog("Parcels sorted by size");
+        awaitCommit(journaled, lsn);
+    }
+    
+    // O(1): parcels derive their storage days from the depot clock
+    void applyAdvanceDays(int days) {
+        clock.advance(days);
+        Log.getInstance().addLog("Depot date advanced by " + days + " to " + clock.getDate());
+    }
+    
+    public DepotClock getClock() {
+        return clock;
     }
     
-    public float getPerDayCost(LocalDate date) {
-        float totalCost = 0;
-        Log.getInstance().addLog("Calculate total cost for " + date);
+    public synchronized SortedMap<Integer, Integer> getAgeHistogram() {
+        return parcelMap.getAgeHistogram();
+    }
+    
+    // Fees charged on the given depot date, from the ledger's running totals
+    public synchronized float getPerDayCost(LocalDate date) {
+        float totalCost = (float) ledger.getDayTotal(date);
+        Log.getInstance().addEvent(LogEventType.COST_QUERY, null, 0, 0f, String.valueOf(date));
         return totalCost;
     }
     
+    // Fees charged from one depot date to another, both inclusive (a week, a month, ...)
+    public synchronized float getCost(LocalDate from, LocalDate to) {
+        return (float) ledger.getRangeTotal(from, to);
+    }
+    
+    public RevenueLedger getLedger() {
+        return ledger;
+    }
+    
     public List<Parcel> getLongStoredParcels(int days) {
-        List<Parcel> longStored = new ArrayList<>();
-        for (Parcel parcel : parcelMap.getAllParcels().values()) {
-            if (parcel.getDays() > days) {
-                longStored.add(parcel);
-            }
-        }
+        List<Parcel> longStored = parcelMap.getParcelsStoredLongerThan(days);
         Log.getInstance().addLog("Count parcels stored more than " + days + " days: " + longStored.size() + " parcels");
         return longStored;
     }
     
-    public void printReport(String filename) {
+    // Counting walks the age buckets without collecting any parcel
+    public int countLongStoredParcels(int days) {
+        int count = parcelMap.countParcelsStoredLongerThan(days);
+        Log.getInstance().addLog("Count parcels stored more than " + days + " days: " + count + " parcels");
+        return count;
+    }
+    
+    // At most limit of them, longest stored first; countLongStoredParcels gives the total
+    public List<Parcel> getLongStoredParcels(int days, int limit) {
+        return parcelMap.getParcelsStoredLongerThan(days, limit);
+    }
+    
+    public synchronized void printReport(String filename) {
         try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
             writer.println("=== Warehouse System Report ===");
             writer.println("Current customer count: " + customerQueue.getSize());
-            writer.println("Current parcel count: " + parcelMap.getAllParcels().size());
+            writer.println("Current parcel count: " + parcelMap.size());
             
             writer.println("\nLong-term stored parcels (>30 days):");
             List<Parcel> longStored = getLongStoredParcels(30);
@@ -94,13 +250,18 @@ public class Manager {
                 writer.printf("ID: %s, Storage days: %d\n", parcel.getID(), parcel.getDays());
             }
             
-            Log.getInstance().addLog("Report generated: " + filename);
+            writer.println("\nParcels by storage days:");
+            for (Map.Entry<Integer, Integer> bucket : parcelMap.getAgeHistogram().entrySet()) {
+                writer.printf("%d days: %d\n", bucket.getKey(), bucket.getValue());
+            }
+            
+            Log.getInstance().addEvent(LogEventType.REPORT_GENERATED, null, 0, 0f, filename);
         } catch (IOException e) {
             System.err.println("Error generating report: " + e.getMessage());
         }
     }
     
-    public void loadCustomersFromFile(String filename) {
+    public synchronized void loadCustomersFromFile(String filename) {
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
             String line;
             while ((line = reader.readLine()) != null) {
@@ -118,69 +279,309 @@ public class Manager {
                             customer.addParcel(parcelId.trim());
                         }
                     }
-                    customerQueue.addCustomer(customer);
+                    enqueue(customer);
                 }
             }
-            Log.getInstance().addLog("Customers data loaded from file");
+            Log.getInstance().addEvent(LogEventType.CUSTOMERS_LOADED);
         } catch (IOException e) {
             System.err.println("Error reading customer file: " + e.getMessage());
         }
     }
     
-    public void loadParcelsFromFile(String filename) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            String line ; // Skip CSV header
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 6) {
-                    String id = parts[0].trim();
-                    int days = Integer.parseInt(parts[1].trim());
-                    float weight = Float.parseFloat(parts[2].trim());
-                    float length = Float.parseFloat(parts[3].trim());
-                    float width = Float.parseFloat(parts[4].trim());
-                    float height = Float.parseFloat(parts[5].trim());
-                    
-                    Dimension dimension = new Dimension(length, width, height);
-                    Parcel parcel = new Parcel(id, days, weight, dimension);
-                    parcelMap.addParcel(parcel);
-                }
+    public synchronized LoadReport loadParcelsFromFile(String filename) {
+        LoadReport report = new LoadReport();
+        try {
+            // Memory-mapped, allocation-light parse; malformed rows are skipped and reported
+            report = ParcelCsvLoader.load(Paths.get(filename), clock, parcelMap::addParcel);
+            if (report.hasErrors()) {
+                report.printErrors("parcel");
+                Log.getInstance().addLog("Skipped " + report.getErrorCount() + " malformed parcel rows");
             }
-            Log.getInstance().addLog("Parcels data loaded from file");
+            Log.getInstance().addEvent(LogEventType.PARCELS_LOADED);
         } catch (IOException e) {
             System.err.println("Error reading parcel file: " + e.getMessage());
         }
+        return report;
+    }
+    
+    public synchronized void loadCustomersFromFileParallel(String filename, ForkJoinPool pool) {
+        try {
+            ParallelCsvImporter.Result<CustomerCsvLoader.Row> result =
+                new ParallelCsvImporter(pool).importCustomers(Paths.get(filename));
+            // Sequence numbers are handed out during the in-order merge
+            result.forEach(this::addCustomerRow);
+            Log.getInstance().addEvent(LogEventType.CUSTOMERS_LOADED);
+        } catch (IOException e) {
+            System.err.println("Error reading customer file: " + e.getMessage());
+        }
+    }
+    
+    public synchronized LoadReport loadParcelsFromFileParallel(String filename, ForkJoinPool pool) {
+        LoadReport report = new LoadReport();
+        try {
+            ParallelCsvImporter.Result<Parcel> result = new ParallelCsvImporter(pool).importParcels(Paths.get(filename), clock);
+            result.forEach(parcelMap::addParcel);
+            report = result.getReport();
+            if (report.hasErrors()) {
+                report.printErrors("parcel");
+                Log.getInstance().addLog("Skipped " + report.getErrorCount() + " malformed parcel rows");
+            }
+            Log.getInstance().addEvent(LogEventType.PARCELS_LOADED);
+        } catch (IOException e) {
+            System.err.println("Error reading parcel file: " + e.getMessage());
+        }
+        return report;
+    }
+    
+    // Batch hooks used by StreamingImport, always called on its applier thread
+    synchronized void applyCustomerRows(List<CustomerCsvLoader.Row> rows) {
+        for (CustomerCsvLoader.Row row : rows) {
+            addCustomerRow(row);
+        }
+    }
+    
+    synchronized void applyParcels(List<Parcel> parcels) {
+        for (Parcel parcel : parcels) {
+            parcelMap.addParcel(parcel);
+        }
+    }
+    
+    // Customer rows have no errors to report: like the line parser, bad rows are skipped
+    synchronized void completeCustomerImport() {
+        Log.getInstance().addEvent(LogEventType.CUSTOMERS_LOADED);
+    }
+    
+    synchronized void completeParcelImport(LoadReport report) {
+        if (report.hasErrors()) {
+            report.printErrors("parcel");
+            Log.getInstance().addLog("Skipped " + report.getErrorCount() + " malformed parcel rows");
+        }
+        Log.getInstance().addEvent(LogEventType.PARCELS_LOADED);
+        sortParcels();
+        Log.getInstance().addEvent(LogEventType.SYSTEM_INITIALIZED);
+    }
+    
+    private void addCustomerRow(CustomerCsvLoader.Row row) {
+        Customer customer = new Customer(generateSequenceNum(), row.getName());
+        for (String parcelId : row.getParcelIds()) {
+            customer.addParcel(parcelId);
+        }
+        enqueue(customer);
     }
     
     public void processNextCustomer() {
+        if (processNextCustomer(worker, null) == null) {
+            throw new IllegalStateException("No customers in queue");
+        }
+    }
+    
+    // Serves the customer at the head of the queue at the given counter and returns them, or
+    // null when the queue is empty. Counters may call this concurrently (see CounterPool): the
+    // customer is journaled and taken off the queue under the depot lock, charged outside it,
+    // and the charges are recorded under the lock again. Its parcels are taken from the
+    // ParcelMap outside the lock too, unless a journal needs them taken in journal order.
+    // stats, when given, gets the service time.
+    public Customer processNextCustomer(Worker counter, CounterStats stats) {
+        Claim claim;
+        long claimed;
+        MutationJournal journaled;
+        long lsn = 0;
+        synchronized (this) {
+            awaitNotQuiescing();
+            Customer head = customerQueue.getHead();
+            if (head == null) {
+                return null;
+            }
+            journaled = journal;
+            Tariff tariff = TariffManager.getInstance().current();
+            if (journaled != null) {
+                try {
+                    if (tariff != journaledTariff) {
+                        // Replay must charge with today's tariff, not the one at recovery
+                        journaled.logTariff(tariff.getSource());
+                        journaledTariff = tariff;
+                    }
+                    lsn = journaled.logProcessCustomer(head.getSequenceNum());
+                } catch (IOException e) {
+                    throw journalFailure(e);
+                }
+            }
+            claim = claimNextCustomer(tariff);
+            claimed = System.nanoTime();
+            if (journaled != null) {
+                // A collection journaled after this record must find the parcels gone on replay
+                takeParcels(claim);
+            }
+        }
+        if (!claim.taken) {
+            takeParcels(claim);
+        }
+        charge(claim, counter);
+        synchronized (this) {
+            record(claim);
+            if (journaled != null && journaled == journal) {
+                compactIfNeeded();
+            }
+        }
+        // The record was committing while the customer was charged
+        awaitCommit(journaled, lsn);
+        if (stats != null) {
+            stats.record(System.nanoTime() - claimed, claim.charged, claim.totalFee);
+        }
+        return claim.customer;
+    }
+    
+    synchronized void applyTariff(String source) {
+        journaledTariff = Tariff.parse(source);
+    }
+    
+    // The tariff replayed charges use: the journal's latest, or for journals without tariff
+    // records the current one
+    Tariff getJournaledTariff() {
+        return journaledTariff != null ? journaledTariff : TariffManager.getInstance().current();
+    }
+    
+    synchronized Customer applyProcessNextCustomer(Tariff tariff) {
+        Claim claim = claimNextCustomer(tariff);
+        takeParcels(claim);
+        charge(claim, worker);
+        record(claim);
+        return claim.customer;
+    }
+    
+    // A customer taken off the queue whose charges are not recorded yet
+    private static class Claim {
+        final Customer customer;
+        final Tariff tariff;
+        final long day;
+        final Parcel[] parcels;
+        final float[] fees;
+        boolean taken;
+        int charged;
+        float totalFee;
+        
+        Claim(Customer customer, Tariff tariff, long day) {
+            this.customer = customer;
+            this.tariff = tariff;
+            this.day = day;
+            this.parcels = new Parcel[customer.getParcelCount()];
+            this.fees = new float[parcels.length];
+        }
+    }
+    
+    // Called with the lock held
+    private Claim claimNextCustomer(Tariff tariff) {
         Customer customer = customerQueue.removeCustomer();
         if (customer == null) {
             throw new IllegalStateException("No customers in queue");
         }
-        
-        String[] parcelIds = customer.getParcels(0);
+        parcelOwners.removeCustomer(customer);
+        inFlight++;
+        return new Claim(customer, tariff, clock.today());
+    }
+    
+    // Atomic per parcel: one collected or claimed elsewhere meanwhile is simply missing
+    private void takeParcels(Claim claim) {
+        for (int i = 0; i < claim.parcels.length; i++) {
+            // Taken out first so the worker keeps a parcel that outlives its store entry
+            claim.parcels[i] = parcelMap.takeParcel(claim.customer.getParcelCode(i));
+        }
+        claim.taken = true;
+    }
+    
+    // Touches nothing but the claim, the counter's worker and the log, so runs without the lock
+    private void charge(Claim claim, Worker counter) {
+        Customer customer = claim.customer;
         float totalFee = 0;
-        
-        for (String parcelId : parcelIds) {
-            if (parcelId != null) {
-                Parcel parcel = parcelMap.getParcel(parcelId);
-                if (parcel != null) {
-                    worker.processCustomer(customer, parcel);
-                    parcelMap.removeParcel(parcelId);
-                    processedParcels.add(parcelId);
-                    totalFee += customer.getCost();
-                }
+        for (int i = 0; i < claim.parcels.length; i++) {
+            Parcel parcel = claim.parcels[i];
+            if (parcel != null) {
+                // The claim's day: the clock may advance while a counter charges
+                claim.fees[i] = counter.processCustomer(customer, parcel, claim.tariff, claim.day);
+                Log.getInstance().addParcelEvent(LogEventType.PARCEL_PROCESSED, parcel.getID());
+                totalFee += claim.fees[i];
+                claim.charged++;
+            } else {
+                // A dangling reference: nothing to charge, but no longer silently
+                Log.getInstance().addParcelEvent(LogEventType.PARCEL_NOT_FOUND,
+                    codec.decode(customer.getParcelCode(i)));
             }
         }
         
         if (totalFee > 0) {
-            Log.getInstance().addLog(String.format(
-                "Processed all parcels for customer %s, Total cost: %.2f", 
-                customer.getName(), totalFee));
+            Log.getInstance().addEvent(LogEventType.CUSTOMER_PROCESSED,
+                null, customer.getSequenceNum(), totalFee, customer.getName());
+        }
+        claim.totalFee = totalFee;
+        // The worker left the last parcel's fee; a served customer's cost is the whole charge
+        customer.setFee(totalFee);
+    }
+    
+    // Called with the lock held
+    private void record(Claim claim) {
+        Customer customer = claim.customer;
+        for (int i = 0; i < claim.parcels.length; i++) {
+            Parcel parcel = claim.parcels[i];
+            if (parcel != null) {
+                processedParcels.add(customer.getParcelCode(i));
+                ledger.record(claim.day, customer.getSequenceNum(), parcel.getID(), claim.fees[i]);
+            }
+        }
+        if (--inFlight == 0 && quiescing > 0) {
+            notifyAll();
+        }
+    }
+    
+    // Snapshots, compaction and restores need every claimed customer recorded: hold back new
+    // claims and wait for the counters to finish the ones they have. Called with the lock held.
+    private void awaitCountersIdle() {
+        quiescing++;
+        try {
+            while (inFlight > 0) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for counters");
+        } finally {
+            if (--quiescing == 0) {
+                notifyAll();
+            }
+        }
+    }
+    
+    private void awaitNotQuiescing() {
+        try {
+            while (quiescing > 0) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a snapshot");
         }
     }
     
     public boolean isParcelProcessed(String parcelId) {
-        return processedParcels.contains(parcelId);
+        return processedParcels.contains(codec.lookup(parcelId));
+    }
+    
+    // The queued customer that owns the parcel (the earliest one when several list it), or null
+    public synchronized Customer getParcelOwner(String parcelId) {
+        int sequenceNum = parcelOwners.getOwner(codec.lookup(parcelId));
+        return sequenceNum == ParcelOwnerIndex.NO_OWNER ? null : customerQueue.getCustomer(sequenceNum);
+    }
+    
+    // IDs listed by queued customers with no such parcel in the depot, in no particular order
+    public synchronized List<String> getDanglingParcelIds() {
+        List<String> ids = new ArrayList<>(parcelOwners.getDanglingCount());
+        for (PrimitiveIterator.OfLong codes = parcelOwners.danglingCodes(); codes.hasNext(); ) {
+            ids.add(codec.decode(codes.nextLong()));
+        }
+        return ids;
+    }
+    
+    public synchronized int countDanglingParcels() {
+        return parcelOwners.getDanglingCount();
     }
     
     public QueOfCustomers getCustomerQueue() {
@@ -195,14 +596,47 @@ public class Manager {
         return worker;
     }
     
-    public void addNewCustomer(String name, String[] parcelIds, String customerFilePath) {
-        int seqNum = generateSequenceNum();
-        Customer customer = new Customer(seqNum, name);
-        for (String parcelId : parcelIds) {
-            customer.addParcel(parcelId.trim());
+    public void addCustomerListener(CustomerListener listener) {
+        customerListeners.add(listener);
+    }
+    
+    public void removeCustomerListener(CustomerListener listener) {
+        customerListeners.remove(listener);
+    }
+    
+    // Returns the new customer's sequence number
+    public int addNewCustomer(String name, String[] parcelIds, String customerFilePath) {
+        String[] trimmed = new String[parcelIds.length];
+        for (int i = 0; i < parcelIds.length; i++) {
+            trimmed[i] = parcelIds[i].trim();
         }
-        customerQueue.addCustomer(customer);
-        
+        MutationJournal journaled;
+        long lsn;
+        int seqNum;
+        synchronized (this) {
+            journaled = journal;
+            if (journaled == null) {
+                seqNum = generateSequenceNum();
+                addCustomer(seqNum, name, trimmed);
+                appendCustomerRow(seqNum, name, parcelIds, customerFilePath);
+                return seqNum;
+            }
+            // The journal replaces the per-call CSV append; compaction rewrites the CSV files
+            seqNum = currentSequenceNum;
+            try {
+                lsn = journaled.logAddCustomer(seqNum, name, trimmed);
+            } catch (IOException e) {
+                throw journalFailure(e);
+            }
+            customerCsvFile = customerFilePath;
+            applyAddCustomer(seqNum, name, trimmed);
+            compactIfNeeded();
+        }
+        awaitCommit(journaled, lsn);
+        return seqNum;
+    }
+    
+    private void appendCustomerRow(int seqNum, String name, String[] parcelIds, String customerFilePath) {
         // Update specified customer file
         try (FileWriter fw = new FileWriter(customerFilePath, true)) {
             StringBuilder parcels = new StringBuilder();
@@ -211,85 +645,273 @@ public class Manager {
                 parcels.append(parcelIds[i]);
             }
             fw.write(String.format("%s,%s\n", name, parcels.toString()));
-            Log.getInstance().addLog("New customer added: " + name);
+            Log.getInstance().addEvent(LogEventType.CUSTOMER_ADDED, null, seqNum, 0f, name);
         } catch (IOException e) {
             System.err.println("Error updating customer file: " + e.getMessage());
         }
     }
     
+    void applyAddCustomer(int seqNum, String name, String[] parcelIds) {
+        currentSequenceNum = Math.max(currentSequenceNum, seqNum + 1);
+        addCustomer(seqNum, name, parcelIds);
+        Log.getInstance().addEvent(LogEventType.CUSTOMER_ADDED, null, seqNum, 0f, name);
+    }
+    
+    private void addCustomer(int seqNum, String name, String[] parcelIds) {
+        Customer customer = new Customer(seqNum, name);
+        for (String parcelId : parcelIds) {
+            customer.addParcel(parcelId);
+        }
+        enqueue(customer);
+    }
+    
     public void addNewParcel(String id, int days, float weight, float length, float width, float height, String customerId, String parcelFilePath) {
-        // Create new parcel
-        Dimension dimension = new Dimension(length, width, height);
-        Parcel parcel = new Parcel(id, days, weight, dimension);
-        parcelMap.addParcel(parcel);
-        
-        // If customer is specified, assign parcel to customer
-        if (customerId != null && !customerId.isEmpty()) {
-            Queue<Customer> tempQueue = new LinkedList<>(customerQueue.getCustomers());
-            while (!tempQueue.isEmpty()) {
-                Customer customer = tempQueue.poll();
-                if (String.valueOf(customer.getSequenceNum()).equals(customerId)) {
-                    customer.addParcel(id);
-                    Log.getInstance().addLog(String.format("Parcel %s assigned to customer %s", id, customer.getName()));
-                    break;
-                }
+        MutationJournal journaled;
+        long lsn;
+        synchronized (this) {
+            journaled = journal;
+            if (journaled == null) {
+                applyAddParcel(id, days, weight, length, width, height, customerId);
+                appendParcelRow(id, days, weight, length, width, height, parcelFilePath);
+                return;
+            }
+            try {
+                lsn = journaled.logAddParcel(id, days, weight, length, width, height, customerId);
+            } catch (IOException e) {
+                throw journalFailure(e);
             }
+            parcelCsvFile = parcelFilePath;
+            applyAddParcel(id, days, weight, length, width, height, customerId);
+            Log.getInstance().addParcelEvent(LogEventType.PARCEL_ADDED, id);
+            compactIfNeeded();
         }
-        
+        awaitCommit(journaled, lsn);
+    }
+    
+    private void appendParcelRow(String id, int days, float weight, float length, float width, float height,
+                                 String parcelFilePath) {
         // Update parcel file
         try (FileWriter fw = new FileWriter(parcelFilePath, true)) {
             fw.write(String.format("%s,%d,%.1f,%.1f,%.1f,%.1f\n", 
                 id, days, weight, length, width, height));
-            Log.getInstance().addLog("New parcel added: " + id);
+            Log.getInstance().addParcelEvent(LogEventType.PARCEL_ADDED, id);
         } catch (IOException e) {
             System.err.println("Error updating parcel file: " + e.getMessage());
         }
     }
     
+    void applyAddParcel(String id, int days, float weight, float length, float width, float height, String customerId) {
+        // Create new parcel
+        Dimension dimension = new Dimension(length, width, height);
+        Parcel parcel = new Parcel(clock, id, days, weight, dimension);
+        parcelMap.addParcel(parcel);
+        
+        // If customer is specified, assign parcel to customer
+        Customer customer = findCustomer(customerId);
+        if (customer != null) {
+            customer.addParcel(id);
+            parcelOwners.addParcel(customer, customer.getParcelCode(customer.getParcelCount() - 1));
+            Log.getInstance().addEvent(LogEventType.PARCEL_ASSIGNED,
+                id, customer.getSequenceNum(), 0f, customer.getName());
+            for (CustomerListener listener : customerListeners) {
+                listener.customerParcelsChanged(customer);
+            }
+        }
+    }
+    
+    // The queued customer whose sequence number is written exactly as customerId, or null
+    private Customer findCustomer(String customerId) {
+        if (customerId == null || customerId.isEmpty()) {
+            return null;
+        }
+        int sequenceNum;
+        try {
+            sequenceNum = Integer.parseInt(customerId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        // "+7" or "007" never matched customer 7 before either
+        if (!String.valueOf(sequenceNum).equals(customerId)) {
+            return null;
+        }
+        return customerQueue.getCustomer(sequenceNum);
+    }
+    
+    private void enqueue(Customer customer) {
+        customerQueue.addCustomer(customer);
+        parcelOwners.addCustomer(customer);
+    }
+    
     private int generateSequenceNum() {
         return currentSequenceNum++;
     }
     
+    int getSequenceCounter() {
+        return currentSequenceNum;
+    }
+    
+    public synchronized void saveSnapshot(Path file) throws IOException {
+        awaitCountersIdle();
+        DepotSnapshot.write(this, file);
+        Log.getInstance().addLog("Snapshot saved: " + file);
+    }
+    
+    // Replaces the whole depot state with the snapshot contents
+    public synchronized void restoreSnapshot(Path file) throws IOException {
+        awaitCountersIdle();
+        DepotSnapshot.restore(file, this);
+        Log.getInstance().addLog(String.format("Snapshot restored: %s (%d customers, %d parcels)",
+            file, customerQueue.getSize(), parcelMap.size()));
+    }
+    
+    public synchronized void exportCsv(Path customerFile, Path parcelFile) throws IOException {
+        awaitCountersIdle();
+        DepotSnapshot.exportCsv(this, customerFile, parcelFile);
+        Log.getInstance().addLog("Depot exported to " + customerFile + " and " + parcelFile);
+    }
+    
+    // Parcels must be on this depot's clock; arrival days stand as the clock moves to today
+    void restoreState(long today, int sequenceCounter, List<Customer> customers, List<Parcel> parcels,
+                      Collection<String> processed, RevenueLedger restoredLedger) {
+        clock.set(today);
+        customerQueue.clear();
+        parcelOwners.clear();
+        for (Customer customer : customers) {
+            enqueue(customer);
+        }
+        parcelMap.clear();
+        for (Parcel parcel : parcels) {
+            parcelMap.restoreParcel(parcel);
+        }
+        processedParcels.clear();
+        for (String parcelId : processed) {
+            processedParcels.add(codec.encode(parcelId));
+        }
+        ledger = restoredLedger;
+        currentSequenceNum = sequenceCounter;
+    }
+    
+    // Journals every mutation from now on. Restores the depot from the journal directory when
+    // it already holds a journal, otherwise the current state becomes its base snapshot.
+    public synchronized void enableJournal(Path directory) throws IOException {
+        enableJournal(directory, MutationJournal.Durability.valueOf(
+            System.getProperty("depot.journal.durability", "BATCHED")));
+    }
+    
+    public synchronized void enableJournal(Path directory, MutationJournal.Durability durability) throws IOException {
+        if (journal != null) {
+            throw new IllegalStateException("Journal already enabled");
+        }
+        awaitCountersIdle();
+        journaledTariff = null;
+        journal = MutationJournal.open(directory, durability,
+            Long.getLong("depot.journal.commitIntervalMs", 20L),
+            Long.getLong("depot.journal.compactBytes", 64L * 1024 * 1024), this);
+        // Whatever was replayed, the next charge records the live tariff again
+        journaledTariff = null;
+    }
+    
+    public synchronized void disableJournal() {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+            journaledTariff = null;
+        }
+    }
+    
+    public MutationJournal getJournal() {
+        return journal;
+    }
+    
+    // Folds the journal into a fresh snapshot and rewrites each CSV file the GUI added rows to
+    // from the current depot. Both are replaced atomically, so a failure keeps the old file.
+    public synchronized void compactJournal() throws IOException {
+        if (journal == null) {
+            throw new IllegalStateException("Journal not enabled");
+        }
+        awaitCountersIdle();
+        journal.compact(this);
+        // The new log starts without a tariff record
+        journaledTariff = null;
+        if (customerCsvFile != null) {
+            DepotSnapshot.exportCustomers(this, Paths.get(customerCsvFile));
+        }
+        if (parcelCsvFile != null) {
+            DepotSnapshot.exportParcels(this, Paths.get(parcelCsvFile));
+        }
+        Log.getInstance().addLog("Journal compacted at LSN " + journal.getLastLsn());
+    }
+    
+    // A record that cannot be appended fails its mutation, which has not been applied yet
+    private static IllegalStateException journalFailure(IOException e) {
+        return new IllegalStateException("Journal write failed: " + e.getMessage(), e);
+    }
+    
+    // Called without the lock, so that SYNC callers share commits. The mutation is applied
+    // already; if its commit fails the journal refuses every later append as well.
+    private static void awaitCommit(MutationJournal journaled, long lsn) {
+        if (journaled == null) {
+            return;
+        }
+        try {
+            journaled.awaitCommit(lsn);
+        } catch (IOException e) {
+            throw new IllegalStateException("Journal commit failed: " + e.getMessage(), e);
+        }
+    }
+    
+    private void compactIfNeeded() {
+        if (journal.needsCompaction()) {
+            try {
+                compactJournal();
+            } catch (IOException e) {
+                System.err.println("Error compacting journal: " + e.getMessage());
+            }
+        }
+    }
+    
+    // Read-only live view
     public Set<String> getProcessedParcels() {
-        return new HashSet<>(processedParcels); // Return a copy to protect internal state
+        return processedView;
     }
     
     public void deleteCustomer(int sequenceNum) {
-        Queue<Customer> tempQueue = new LinkedList<>();
-        Customer found = null;
-        
-        // Search for customer to delete
-        while (!customerQueue.getCustomers().isEmpty()) {
-            Customer customer = customerQueue.removeCustomer();
-            if (customer.getSequenceNum() == sequenceNum) {
-                found = customer;
-            } else {
-                tempQueue.offer(customer);
+        MutationJournal journaled;
+        long lsn = 0;
+        synchronized (this) {
+            journaled = journal;
+            if (journaled != null) {
+                // Checked before logging, so replay never meets an unknown customer
+                if (customerQueue.getCustomer(sequenceNum) == null) {
+                    throw new IllegalArgumentException("Customer with specified sequence number not found: " + sequenceNum);
+                }
+                try {
+                    lsn = journaled.logDeleteCustomer(sequenceNum);
+                } catch (IOException e) {
+                    throw journalFailure(e);
+                }
+            }
+            applyDeleteCustomer(sequenceNum);
+            if (journaled != null) {
+                compactIfNeeded();
             }
         }
-        
-        // Return remaining customers to queue
-        while (!tempQueue.isEmpty()) {
-            customerQueue.addCustomer((Customer)tempQueue.poll());
-        }
-        
+        awaitCommit(journaled, lsn);
+    }
+    
+    void applyDeleteCustomer(int sequenceNum) {
+        Customer found = customerQueue.removeCustomer(sequenceNum);
         if (found == null) {
             throw new IllegalArgumentException("Customer with specified sequence number not found: " + sequenceNum);
         }
+        parcelOwners.removeCustomer(found);
         
-        Log.getInstance().addLog(String.format("Customer %s (Sequence number: %d) deleted", 
-            found.getName(), sequenceNum));
+        Log.getInstance().addEvent(LogEventType.CUSTOMER_DELETED,
+            null, sequenceNum, 0f, found.getName());
     }
     
     private List<Customer> getCustomerList() {
-        List<Customer> customers = new ArrayList<>();
-        Queue<Customer> tempQueue = new LinkedList<>(customerQueue.getCustomers());
-        
-        while (!tempQueue.isEmpty()) {
-            customers.add(tempQueue.poll());
-        }
-        
-        return customers;
+        return new ArrayList<>(customerQueue.getCustomers());
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,83 @@
+package com.depot.pojo;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+// Bounded lock-free ring buffer for many producers and a single consumer. Producers claim a
+// slot with one CAS on the tail and publish it through the slot's sequence number, so
+// entries offered by the same thread are always consumed in the order they were offered.
+class MpscRingBuffer<E> {
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    MpscRingBuffer(int capacity) {
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.buffer = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(E e) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    buffer[index] = e;
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    // Consumer side only
+    @SuppressWarnings("unchecked")
+    E poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E e = (E) buffer[index];
+        buffer[index] = null;
+        sequences.set(index, head + mask + 1);
+        head++;
+        return e;
+    }
+
+    // Consumer side only
+    int drain(Consumer<E> consumer, int limit) {
+        int count = 0;
+        E e;
+        while (count < limit && (e = poll()) != null) {
+            consumer.accept(e);
+            count++;
+        }
+        return count;
+    }
+
+    // Number of slots claimed by producers so far; a claimed slot may not be published yet
+    long producerPosition() {
+        return tail.get();
+    }
+
+    int capacity() {
+        return buffer.length;
+    }
+}
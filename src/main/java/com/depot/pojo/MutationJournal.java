@@ -0,0 +1,511 @@
+package com.depot.pojo;
+
+import com.depot.pojo.common.Customer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// Append-only write-ahead journal of every mutating Manager operation. A journal directory
+// holds a base snapshot (depot.snap) and the log of mutations made since (depot.wal).
+// Opening a journal restores the snapshot and replays the log; compaction writes a new
+// snapshot and starts an empty log.
+//
+// Record layout (big-endian): i32 body length, body = i64 LSN, u8 type, fields, then a CRC32
+// of the body. A torn or corrupt tail left by a crash is detected by its length or checksum
+// and cut off during recovery.
+//
+// Appends are encoded into an in-memory buffer and return the record's LSN; a committer
+// thread writes everything pending with one write and one fsync (group commit), so concurrent
+// or closely spaced mutations share the cost of a single fsync. Manager appends a record
+// before applying its mutation and waits for it (awaitCommit) only after releasing its own
+// lock, so other threads' records can join the same commit.
+public class MutationJournal {
+    public enum Durability {
+        NONE,    // written by the committer thread, never fsynced: survives a process crash only
+        BATCHED, // fsynced at most commitIntervalMs after the mutation
+        SYNC     // the mutating call returns only after its record has been fsynced (awaitCommit)
+    }
+
+    static final int MAGIC = 0x44574131;
+    static final short VERSION = 1;
+    private static final int HEADER_SIZE = 6;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+    static final String SNAPSHOT_FILE = "depot.snap";
+    static final String LOG_FILE = "depot.wal";
+
+    static final byte ADD_CUSTOMER = 1;
+    static final byte ADD_PARCEL = 2;
+    static final byte PROCESS_CUSTOMER = 3;
+    static final byte DELETE_CUSTOMER = 4;
+    static final byte COLLECT_PARCEL = 5;
+    static final byte ADVANCE_DAYS = 6;
+    static final byte SET_TARIFF = 7;
+
+    // ByteArrayOutputStream that hands out its contents without copying
+    private static class RecordBuffer extends ByteArrayOutputStream {
+        RecordBuffer(int size) {
+            super(size);
+        }
+
+        ByteBuffer view() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final Durability durability;
+    private final long commitIntervalMs;
+    private final long compactBytes;
+    private final Object lock = new Object();
+    private final Object commitLock = new Object();
+    private final RecordBuffer scratch = new RecordBuffer(256);
+    private final DataOutputStream record = new DataOutputStream(scratch);
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private RecordBuffer pending = new RecordBuffer(1 << 16);
+    private RecordBuffer spare = new RecordBuffer(1 << 16);
+    private long lastLsn;
+    private long durableLsn;
+    private long logBytes;
+    private int syncWaiters;
+    private boolean closed;
+    private IOException failure;
+    private Thread committer;
+
+    private MutationJournal(Path directory, Durability durability, long commitIntervalMs, long compactBytes) {
+        this.snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        this.logFile = directory.resolve(LOG_FILE);
+        this.durability = durability;
+        this.commitIntervalMs = commitIntervalMs;
+        this.compactBytes = compactBytes;
+    }
+
+    // Restores the manager from the journal directory (or seeds the directory from the
+    // manager's current state on first use) and starts journaling
+    static MutationJournal open(Path directory, Durability durability, long commitIntervalMs,
+                                long compactBytes, Manager manager) throws IOException {
+        Files.createDirectories(directory);
+        MutationJournal journal = new MutationJournal(directory, durability, commitIntervalMs, compactBytes);
+        journal.recover(manager);
+        journal.committer = new Thread(journal::commitLoop, "mutation-journal");
+        journal.committer.setDaemon(true);
+        journal.committer.start();
+        return journal;
+    }
+
+    public Durability getDurability() { return durability; }
+
+    public long getLastLsn() {
+        synchronized (lock) {
+            return lastLsn;
+        }
+    }
+
+    public long getDurableLsn() {
+        synchronized (lock) {
+            return durableLsn;
+        }
+    }
+
+    boolean needsCompaction() {
+        synchronized (lock) {
+            return logBytes >= compactBytes;
+        }
+    }
+
+    long logAddCustomer(int sequenceNum, String name, String[] parcelIds) throws IOException {
+        synchronized (lock) {
+            begin(ADD_CUSTOMER);
+            record.writeInt(sequenceNum);
+            writeString(name);
+            record.writeInt(parcelIds.length);
+            for (String parcelId : parcelIds) {
+                writeString(parcelId);
+            }
+            return commit(end());
+        }
+    }
+
+    long logAddParcel(String id, int days, float weight, float length, float width, float height,
+                      String customerId) throws IOException {
+        synchronized (lock) {
+            begin(ADD_PARCEL);
+            writeString(id);
+            record.writeInt(days);
+            record.writeFloat(weight);
+            record.writeFloat(length);
+            record.writeFloat(width);
+            record.writeFloat(height);
+            writeString(customerId == null ? "" : customerId);
+            return commit(end());
+        }
+    }
+
+    long logProcessCustomer(int sequenceNum) throws IOException {
+        return logInt(PROCESS_CUSTOMER, sequenceNum);
+    }
+
+    long logDeleteCustomer(int sequenceNum) throws IOException {
+        return logInt(DELETE_CUSTOMER, sequenceNum);
+    }
+
+    long logAdvanceDays(int days) throws IOException {
+        return logInt(ADVANCE_DAYS, days);
+    }
+
+    // Tariff source text; later PROCESS_CUSTOMER records are replayed with it
+    long logTariff(String source) throws IOException {
+        synchronized (lock) {
+            begin(SET_TARIFF);
+            writeString(source);
+            return commit(end());
+        }
+    }
+
+    long logCollectParcel(String id) throws IOException {
+        synchronized (lock) {
+            begin(COLLECT_PARCEL);
+            writeString(id);
+            return commit(end());
+        }
+    }
+
+    private long logInt(byte type, int value) throws IOException {
+        synchronized (lock) {
+            begin(type);
+            record.writeInt(value);
+            return commit(end());
+        }
+    }
+
+    private void begin(byte type) throws IOException {
+        if (failure != null) {
+            throw new IOException("Journal unavailable after earlier failure", failure);
+        }
+        if (closed) {
+            throw new IOException("Journal is closed");
+        }
+        scratch.reset();
+        record.writeLong(lastLsn + 1);
+        record.writeByte(type);
+    }
+
+    // Frames the encoded body into the pending buffer and returns its LSN
+    private long end() throws IOException {
+        if (scratch.size() > MAX_RECORD_SIZE) {
+            throw new IOException("Journal record too large: " + scratch.size() + " bytes");
+        }
+        crc.reset();
+        crc.update(scratch.view());
+        DataOutputStream out = new DataOutputStream(pending);
+        out.writeInt(scratch.size());
+        scratch.writeTo(out);
+        out.writeInt((int) crc.getValue());
+        lastLsn++;
+        logBytes += scratch.size() + 8;
+        return lastLsn;
+    }
+
+    // Called with lock held. Never waits: a SYNC caller waits in awaitCommit, without its own
+    // locks, so the committer is woken now to start on the record.
+    private long commit(long lsn) {
+        if (durability == Durability.SYNC || pending.size() >= 1 << 20) {
+            lock.notifyAll();
+        }
+        return lsn;
+    }
+
+    // With SYNC durability, waits until the record with this LSN has been fsynced; otherwise
+    // returns at once and the committer writes it in its own time
+    void awaitCommit(long lsn) throws IOException {
+        if (durability != Durability.SYNC) {
+            return;
+        }
+        synchronized (lock) {
+            awaitDurable(lsn);
+        }
+    }
+
+    // Forces every mutation appended so far to disk, whatever the durability level
+    public void flush() throws IOException {
+        synchronized (lock) {
+            awaitDurable(lastLsn);
+        }
+    }
+
+    // Called with lock held
+    private void awaitDurable(long lsn) throws IOException {
+        syncWaiters++;
+        lock.notifyAll();
+        try {
+            while (durableLsn < lsn && failure == null && !closed) {
+                lock.wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for journal commit");
+        } finally {
+            syncWaiters--;
+        }
+        if (durableLsn < lsn) {
+            throw new IOException("Journal commit failed", failure);
+        }
+    }
+
+    private void commitLoop() {
+        while (true) {
+            RecordBuffer batch;
+            long batchLsn;
+            synchronized (lock) {
+                try {
+                    while (!closed && pending.size() == 0) {
+                        lock.wait();
+                    }
+                    if (!closed && syncWaiters == 0 && commitIntervalMs > 0) {
+                        // Let more mutations join this commit unless somebody is waiting for it
+                        long deadline = System.currentTimeMillis() + commitIntervalMs;
+                        long remaining;
+                        while (!closed && syncWaiters == 0 && pending.size() < 1 << 20
+                                && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                            lock.wait(remaining);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    closed = true;
+                }
+                if (pending.size() == 0) {
+                    if (closed) {
+                        lock.notifyAll();
+                        return;
+                    }
+                    continue;
+                }
+                batch = pending;
+                pending = spare;
+                spare = batch;
+                batchLsn = lastLsn;
+            }
+
+            try {
+                synchronized (commitLock) {
+                    ByteBuffer data = batch.view();
+                    while (data.hasRemaining()) {
+                        channel.write(data);
+                    }
+                    if (durability != Durability.NONE) {
+                        channel.force(false);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Error writing mutation journal: " + e.getMessage());
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+            synchronized (lock) {
+                batch.reset();
+                durableLsn = batchLsn;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    // Writes a snapshot covering everything journaled so far and replaces the log with an
+    // empty one. A crash in between is harmless: replay skips records the snapshot covers.
+    void compact(Manager manager) throws IOException {
+        flush();
+        long lsn = getLastLsn();
+        DepotSnapshot.write(manager, snapshotFile, lsn);
+        synchronized (commitLock) {
+            channel.close();
+            Path temp = logFile.resolveSibling(LOG_FILE + ".tmp");
+            writeHeader(temp);
+            Files.move(temp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(logFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        synchronized (lock) {
+            logBytes = 0;
+        }
+    }
+
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            committer.join();
+            synchronized (commitLock) {
+                channel.force(false);
+                channel.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Error closing mutation journal: " + e.getMessage());
+        }
+    }
+
+    private void recover(Manager manager) throws IOException {
+        long snapshotLsn;
+        if (Files.exists(snapshotFile)) {
+            snapshotLsn = DepotSnapshot.restore(snapshotFile, manager);
+        } else {
+            // First use: the current in-memory depot becomes the base of the journal
+            snapshotLsn = 0;
+            DepotSnapshot.write(manager, snapshotFile, 0);
+        }
+        lastLsn = snapshotLsn;
+
+        if (!Files.exists(logFile)) {
+            writeHeader(logFile);
+        }
+        long replayed = 0;
+        long validEnd;
+        try (FileChannel in = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Journal too large to map: " + logFile);
+            }
+            MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (size < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a mutation journal: " + logFile);
+            }
+            int version = buffer.getShort(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported journal version " + version + ": " + logFile);
+            }
+            validEnd = HEADER_SIZE;
+            buffer.position(HEADER_SIZE);
+            CRC32 check = new CRC32();
+            while (buffer.remaining() >= 4) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                if (length < 9 || length > MAX_RECORD_SIZE || buffer.remaining() < length + 4) {
+                    break;
+                }
+                ByteBuffer body = buffer.slice(start + 4, length);
+                check.reset();
+                check.update(body.duplicate());
+                if ((int) check.getValue() != buffer.getInt(start + 4 + length)) {
+                    break;
+                }
+                long lsn = body.getLong();
+                byte type = body.get();
+                if (lsn > lastLsn) {
+                    try {
+                        apply(type, body, manager);
+                    } catch (IllegalArgumentException | IllegalStateException e) {
+                        throw new IOException("Cannot replay journal record " + lsn + ": " + e.getMessage());
+                    }
+                    lastLsn = lsn;
+                    replayed++;
+                }
+                buffer.position(start + 8 + length);
+                validEnd = buffer.position();
+            }
+            if (validEnd < size) {
+                System.err.println("Discarding " + (size - validEnd) + " bytes of torn journal tail: " + logFile);
+            }
+            logBytes = validEnd - HEADER_SIZE;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt journal record in " + logFile);
+        }
+
+        channel = FileChannel.open(logFile, StandardOpenOption.WRITE);
+        channel.truncate(validEnd);
+        channel.position(validEnd);
+        durableLsn = lastLsn;
+        if (replayed > 0) {
+            Log.getInstance().addLog("Journal recovered: " + replayed + " mutations replayed");
+        }
+    }
+
+    private static void apply(byte type, ByteBuffer body, Manager manager) throws IOException {
+        switch (type) {
+            case ADD_CUSTOMER: {
+                int sequenceNum = body.getInt();
+                String name = readString(body);
+                String[] parcelIds = new String[body.getInt()];
+                for (int i = 0; i < parcelIds.length; i++) {
+                    parcelIds[i] = readString(body);
+                }
+                manager.applyAddCustomer(sequenceNum, name, parcelIds);
+                break;
+            }
+            case ADD_PARCEL: {
+                String id = readString(body);
+                int days = body.getInt();
+                float weight = body.getFloat();
+                float length = body.getFloat();
+                float width = body.getFloat();
+                float height = body.getFloat();
+                String customerId = readString(body);
+                manager.applyAddParcel(id, days, weight, length, width, height, customerId);
+                break;
+            }
+            case PROCESS_CUSTOMER: {
+                int sequenceNum = body.getInt();
+                Customer head = manager.getCustomerQueue().getHead();
+                if (head == null || head.getSequenceNum() != sequenceNum) {
+                    throw new IOException("Journal out of step with snapshot: expected customer "
+                        + sequenceNum + " at the head of the queue");
+                }
+                manager.applyProcessNextCustomer(manager.getJournaledTariff());
+                break;
+            }
+            case DELETE_CUSTOMER:
+                manager.applyDeleteCustomer(body.getInt());
+                break;
+            case COLLECT_PARCEL:
+                manager.applyCollectParcel(readString(body));
+                break;
+            case ADVANCE_DAYS:
+                manager.applyAdvanceDays(body.getInt());
+                break;
+            case SET_TARIFF:
+                manager.applyTariff(readString(body));
+                break;
+            default:
+                throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    private static void writeHeader(Path file) throws IOException {
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION);
+            header.flip();
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            out.force(true);
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        record.writeInt(bytes.length);
+        record.write(bytes);
+    }
+
+    private static String readString(ByteBuffer body) {
+        byte[] bytes = new byte[body.getInt()];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
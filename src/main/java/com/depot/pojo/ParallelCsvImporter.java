@@ -0,0 +1,180 @@
+package com.depot.pojo;
+
+import com.depot.pojo.common.DepotClock;
+import com.depot.pojo.common.Parcel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+// Splits a CSV file into chunks at line boundaries and parses the chunks on a fork-join pool.
+// Results are kept per chunk and replayed in file order, so callers see rows in exactly the
+// order the sequential loaders produce them.
+public class ParallelCsvImporter {
+    private static final long MIN_CHUNK_SIZE = 1L << 20;
+    private static final long MAX_CHUNK_SIZE = 64L << 20;
+
+    interface RowParser<T> {
+        void parseRows(CsvScanner scanner, Consumer<T> sink, LoadReport report);
+    }
+
+    public static class Result<T> {
+        private final List<List<T>> chunks;
+        private final LoadReport report;
+
+        Result(List<List<T>> chunks, LoadReport report) {
+            this.chunks = chunks;
+            this.report = report;
+        }
+
+        public void forEach(Consumer<T> action) {
+            for (List<T> chunk : chunks) {
+                chunk.forEach(action);
+            }
+        }
+
+        public LoadReport getReport() { return report; }
+    }
+
+    private static class Chunk<T> {
+        private final long start;
+        private final long end;
+        private final List<T> rows = new ArrayList<>();
+        private final LoadReport report = new LoadReport();
+        private long lines;
+
+        Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    public ParallelCsvImporter(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Storage days in the file are as of the clock's date
+    public Result<Parcel> importParcels(Path file, DepotClock clock) throws IOException {
+        return importFile(file, (scanner, sink, report) -> ParcelCsvLoader.parseRows(scanner, clock, sink, report));
+    }
+
+    public Result<CustomerCsvLoader.Row> importCustomers(Path file) throws IOException {
+        return importFile(file, CustomerCsvLoader::parseRows);
+    }
+
+    <T> Result<T> importFile(Path file, RowParser<T> parser) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<Chunk<T>> chunks = split(channel);
+            IOException[] failure = new IOException[1];
+            pool.invoke(new ParseTask<>(channel, chunks, 0, chunks.size(), parser, failure));
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+
+            // Deterministic merge: chunk order is file order, line numbers become global
+            LoadReport report = new LoadReport();
+            List<List<T>> rows = new ArrayList<>(chunks.size());
+            long lineOffset = 0;
+            for (Chunk<T> chunk : chunks) {
+                report.merge(chunk.report, lineOffset);
+                lineOffset += chunk.lines;
+                rows.add(chunk.rows);
+            }
+            return new Result<>(rows, report);
+        }
+    }
+
+    private <T> List<Chunk<T>> split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long chunkSize = size / ((long) pool.getParallelism() * 4);
+        chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, chunkSize));
+
+        List<Chunk<T>> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkSize;
+            if (end >= size) {
+                end = size;
+            } else {
+                end = nextLineStart(channel, end, size, probe);
+            }
+            chunks.add(new Chunk<>(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    // Position just after the first '\n' at or after from, or size when there is none
+    private static long nextLineStart(FileChannel channel, long from, long size, ByteBuffer probe) throws IOException {
+        long position = from;
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static class ParseTask<T> extends RecursiveAction {
+        private final FileChannel channel;
+        private final List<Chunk<T>> chunks;
+        private final int from;
+        private final int to;
+        private final RowParser<T> parser;
+        private final IOException[] failure;
+
+        ParseTask(FileChannel channel, List<Chunk<T>> chunks, int from, int to, RowParser<T> parser,
+                  IOException[] failure) {
+            this.channel = channel;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.parser = parser;
+            this.failure = failure;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ParseTask<>(channel, chunks, from, mid, parser, failure),
+                    new ParseTask<>(channel, chunks, mid, to, parser, failure));
+                return;
+            }
+            if (to == from) {
+                return;
+            }
+            Chunk<T> chunk = chunks.get(from);
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    chunk.start, chunk.end - chunk.start);
+                CsvScanner scanner = new CsvScanner(buffer, 0, buffer.limit(), true, 1);
+                parser.parseRows(scanner, chunk.rows::add, chunk.report);
+                chunk.lines = scanner.getLineNumber();
+            } catch (IOException e) {
+                synchronized (failure) {
+                    failure[0] = e;
+                }
+            }
+        }
+    }
+}
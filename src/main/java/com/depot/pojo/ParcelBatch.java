@@ -0,0 +1,66 @@
+package com.depot.pojo;
+
+import com.depot.pojo.common.Dimension;
+import com.depot.pojo.common.Parcel;
+
+import java.util.Arrays;
+
+// Parcel attributes laid out column-wise for Worker's batch fee and size class computations.
+// Fill it from parcels with add, or from a whole ParcelMap with scan (see ParcelMap.toBatch).
+public class ParcelBatch implements ParcelStore.RowVisitor {
+    int[] days;
+    float[] weights;
+    float[] lengths;
+    float[] widths;
+    float[] heights;
+    int size;
+
+    public ParcelBatch(int capacity) {
+        int length = Math.max(capacity, 16);
+        days = new int[length];
+        weights = new float[length];
+        lengths = new float[length];
+        widths = new float[length];
+        heights = new float[length];
+    }
+
+    public static ParcelBatch of(Parcel[] parcels) {
+        ParcelBatch batch = new ParcelBatch(parcels.length);
+        for (Parcel parcel : parcels) {
+            batch.add(parcel);
+        }
+        return batch;
+    }
+
+    public void add(Parcel parcel) {
+        Dimension dimension = parcel.getDimension();
+        visit(parcel.getDays(), parcel.getWeight(),
+            dimension.getLength(), dimension.getWidth(), dimension.getHeight());
+    }
+
+    @Override
+    public void visit(int days, float weight, float length, float width, float height) {
+        if (size == weights.length) {
+            int capacity = size * 2;
+            this.days = Arrays.copyOf(this.days, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            widths = Arrays.copyOf(widths, capacity);
+            heights = Arrays.copyOf(heights, capacity);
+        }
+        this.days[size] = days;
+        weights[size] = weight;
+        lengths[size] = length;
+        widths[size] = width;
+        heights[size] = height;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
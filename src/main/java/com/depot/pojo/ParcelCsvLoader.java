@@ -0,0 +1,98 @@
+package com.depot.pojo;
+
+import com.depot.pojo.common.DepotClock;
+import com.depot.pojo.common.Dimension;
+import com.depot.pojo.common.Parcel;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+// Loads Parcels.csv rows (id,days,weight,length,width,height) from a memory-mapped file.
+// Accepts exactly the rows the old split/trim/parse loader accepted and produces the same
+// values; rows that fail to parse are reported with their line number instead of aborting.
+// Storage days in the file are as of the given clock's date.
+public class ParcelCsvLoader {
+    private static final long WINDOW_SIZE = 1L << 30;
+    private static final int FIELDS = 6;
+
+    public static LoadReport load(Path file, DepotClock clock, Consumer<Parcel> sink) throws IOException {
+        LoadReport report = new LoadReport();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long windowStart = 0;
+            long nextLine = 1;
+            do {
+                long length = Math.min(WINDOW_SIZE, size - windowStart);
+                boolean last = windowStart + length == size;
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+                CsvScanner scanner = new CsvScanner(window, 0, (int) length, last, nextLine);
+                parseRows(scanner, clock, sink, report);
+                if (!last && scanner.getPosition() == 0) {
+                    throw new IOException("Line " + nextLine + " is too long");
+                }
+                windowStart += scanner.getPosition();
+                nextLine = scanner.getLineNumber() + 1;
+            } while (windowStart < size);
+        }
+        return report;
+    }
+
+    static void parseRows(CsvScanner scanner, DepotClock clock, Consumer<Parcel> sink, LoadReport report) {
+        int[] starts = new int[FIELDS];
+        int[] ends = new int[FIELDS];
+        while (scanner.nextLine()) {
+            Parcel parcel = parseRow(scanner, clock, starts, ends, report);
+            if (parcel != null) {
+                sink.accept(parcel);
+                report.rowLoaded();
+            }
+        }
+    }
+
+    private static Parcel parseRow(CsvScanner scanner, DepotClock clock, int[] starts, int[] ends, LoadReport report) {
+        // Field count follows String.split(","): trailing empty fields do not count
+        int fieldCount = 0;
+        int field = 0;
+        int from = scanner.getLineStart();
+        int lineEnd = scanner.getLineEnd();
+        while (true) {
+            int to = scanner.indexOf((byte) ',', from);
+            if (field < FIELDS) {
+                starts[field] = from;
+                ends[field] = to;
+            }
+            field++;
+            if (to > from) {
+                fieldCount = field;
+            }
+            if (to == lineEnd) {
+                break;
+            }
+            from = to + 1;
+        }
+        if (fieldCount < FIELDS) {
+            if (fieldCount > 0) {
+                report.rowRejected(scanner.getLineNumber(), "expected " + FIELDS + " fields: " + scanner.line());
+            }
+            return null;
+        }
+
+        try {
+            int idStart = scanner.trimStart(starts[0], ends[0]);
+            String id = scanner.string(idStart, scanner.trimEnd(idStart, ends[0]));
+            int days = scanner.parseInt(starts[1], ends[1]);
+            float weight = scanner.parseFloat(starts[2], ends[2]);
+            float length = scanner.parseFloat(starts[3], ends[3]);
+            float width = scanner.parseFloat(starts[4], ends[4]);
+            float height = scanner.parseFloat(starts[5], ends[5]);
+            return new Parcel(clock, id, days, weight, new Dimension(length, width, height));
+        } catch (NumberFormatException e) {
+            report.rowRejected(scanner.getLineNumber(), e.getMessage() + ": " + scanner.line());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.depot.pojo;
+
+import com.depot.pojo.common.Parcel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Secondary index of parcels ordered by a numeric attribute (volume or weight), largest first
+// with ties broken by ascending parcel ID. remove finds a parcel by its attribute, which cannot
+// drift: parcels have no setters and Dimension is immutable, so a changed parcel is a new one,
+// put in place of the old. Add and remove are O(log n); ordered iteration, top-k and range
+// queries walk the skip list without sorting. Safe for concurrent use without locking;
+// iteration is weakly consistent and sees changes made while it runs or not.
+class ParcelIndex {
+    interface Attribute {
+        float of(Parcel parcel);
+    }
+
+    private static final class Key implements Comparable<Key> {
+        final float value;
+        final String id;
+
+        Key(float value, String id) {
+            this.value = value;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byValue = Float.compare(other.value, value);
+            return byValue != 0 ? byValue : id.compareTo(other.id);
+        }
+    }
+
+    private final Attribute attribute;
+    private final ConcurrentSkipListMap<Key, Parcel> tree = new ConcurrentSkipListMap<>();
+
+    ParcelIndex(Attribute attribute) {
+        this.attribute = attribute;
+    }
+
+    void add(Parcel parcel) {
+        tree.put(new Key(attribute.of(parcel), parcel.getID()), parcel);
+    }
+
+    void remove(Parcel parcel) {
+        tree.remove(new Key(attribute.of(parcel), parcel.getID()));
+    }
+
+    void clear() {
+        tree.clear();
+    }
+
+    Collection<Parcel> values() {
+        return Collections.unmodifiableCollection(tree.values());
+    }
+
+    List<Parcel> largest(int count) {
+        List<Parcel> result = new ArrayList<>(Math.min(count, 1024));
+        for (Parcel parcel : tree.values()) {
+            if (result.size() >= count) {
+                break;
+            }
+            result.add(parcel);
+        }
+        return result;
+    }
+
+    // Parcels with min <= value <= max, largest first
+    List<Parcel> range(float min, float max) {
+        if (Float.compare(min, max) > 0) {
+            return new ArrayList<>();
+        }
+        // "" sorts before every ID, so these bounds cover all IDs at the boundary values
+        NavigableMap<Key, Parcel> slice = min == Float.NEGATIVE_INFINITY
+            ? tree.tailMap(new Key(max, ""), true)
+            : tree.subMap(new Key(max, ""), true, new Key(Math.nextDown(min), ""), false);
+        return new ArrayList<>(slice.values());
+    }
+}
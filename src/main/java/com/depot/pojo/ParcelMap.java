@@ -1,34 +1,506 @@
 package com.depot.pojo;
 
+import com.depot.pojo.common.DepotClock;
 import com.depot.pojo.common.Parcel;
+import com.depot.pojo.common.ParcelIdCodec;
 
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
+// Safe for concurrent use. Parcels are spread over lock stripes by ID code: each stripe has its
+// own store and age index, guarded by the stripe's monitor, so threads working on different
+// parcels rarely wait for each other. The size and weight indexes are lock-free skip lists shared
+// by all stripes. Whole-map reads (iteration, scans, age queries) go stripe by stripe, so they
+// see each stripe at a consistent point but not the whole map at once.
+//
+// With the columnar store, parcels handed out by lookups are views that read the store as it is
+// now; a thread that may race with the parcel's removal should take it with takeParcel instead.
+// Snapshots and query results (largest, ranges, long stored) hold standalone copies, since the
+// indexes keep the store's views and a freed slot is reused by the next parcel added.
+//
+// Storage days are measured against the map's clock (its Manager's, or DepotClock.FIXED for a
+// standalone map); a parcel from another clock is re-dated onto it, keeping its days, when added.
 public class ParcelMap {
-    private Map<String, Parcel> parcels;
+    // Told about every change, on the thread making it, after the change is in place
+    public interface Listener {
+        // The parcel with this ParcelIdCodec code was added, replaced or removed
+        void parcelChanged(long code);
+        
+        // Any parcel may have changed (the map was cleared for a restore)
+        void parcelsReset();
+    }
+    
+    // hash (Parcel objects in a HashMap) or columnar (primitive columns, flyweight views)
+    static final String STORE_PROPERTY = "depot.parcelStore";
+    // Number of lock stripes, rounded up to a power of two; defaults to four per processor
+    static final String STRIPES_PROPERTY = "depot.parcelMap.stripes";
+    private static final int MAX_STRIPES = 1024;
+    
+    private static final class Stripe {
+        final ParcelStore parcels;
+        final AgeIndex byAge;
+        
+        Stripe(ParcelStore parcels, DepotClock clock) {
+            this.parcels = parcels;
+            this.byAge = new AgeIndex(clock);
+        }
+    }
+    
+    private final ParcelIdCodec codec = ParcelIdCodec.getInstance();
+    private final DepotClock clock;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    // Kept in step with the stores on every change; the weight index is built on first use.
+    // A parcel's entries only change under its stripe's lock.
+    private final ParcelIndex bySize = new ParcelIndex(Parcel::getSize);
+    private volatile ParcelIndex byWeight;
+    private final AtomicInteger size = new AtomicInteger();
+    // Bumped on every change; the cached snapshot is valid while its version matches
+    private final LongAdder version = new LongAdder();
+    private long snapshotVersion = -1;
+    private List<Parcel> snapshot;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<String, Parcel> view = new MapView();
     
     public ParcelMap() {
-        this.parcels = new HashMap<>();
+        this(DepotClock.FIXED);
+    }
+    
+    public ParcelMap(DepotClock clock) {
+        this(System.getProperty(STORE_PROPERTY, "hash"),
+            Integer.getInteger(STRIPES_PROPERTY, 4 * Runtime.getRuntime().availableProcessors()), clock);
+    }
+    
+    public ParcelMap(String store, int stripeCount) {
+        this(store, stripeCount, DepotClock.FIXED);
+    }
+    
+    public ParcelMap(String store, int stripeCount, DepotClock clock) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("A parcel map needs at least one stripe: " + stripeCount);
+        }
+        this.clock = clock;
+        int length = Integer.highestOneBit(Math.min(stripeCount, MAX_STRIPES) * 2 - 1);
+        stripes = new Stripe[length];
+        for (int i = 0; i < length; i++) {
+            stripes[i] = new Stripe(createStore(store, clock), clock);
+        }
+        stripeMask = length - 1;
+    }
+    
+    // A single stripe around the given store, on DepotClock.FIXED like a store made without a clock
+    public ParcelMap(ParcelStore store) {
+        this.clock = DepotClock.FIXED;
+        stripes = new Stripe[] {new Stripe(store, clock)};
+        stripeMask = 0;
+    }
+    
+    private static ParcelStore createStore(String name, DepotClock clock) {
+        switch (name) {
+            case "hash":
+                return new HashParcelStore();
+            case "columnar":
+                return new ColumnarParcelStore(clock);
+            default:
+                throw new IllegalArgumentException("Unknown parcel store: " + name);
+        }
+    }
+    
+    public int getStripeCount() {
+        return stripes.length;
+    }
+    
+    public DepotClock getClock() {
+        return clock;
+    }
+    
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
     }
     
     public void addParcel(Parcel parcel) {
-        parcels.put(parcel.getID(), parcel);
-        Log.getInstance().addLog("New parcel added: " + parcel.getID());
+        put(parcel);
+        Log.getInstance().addParcelEvent(LogEventType.PARCEL_ADDED, parcel.getID());
     }
     
     public Parcel getParcel(String id) {
-        return parcels.get(id);
+        long code = codec.lookup(id);
+        return code == ParcelIdCodec.NO_ID ? null : getParcel(code);
     }
     
-    public void removeParcel(String id) {
-        Parcel parcel = parcels.remove(id);
+    // By ParcelIdCodec code, e.g. straight from Customer.getParcelCode
+    public Parcel getParcel(long code) {
+        Stripe stripe = stripeOf(code);
+        synchronized (stripe) {
+            return stripe.parcels.get(code);
+        }
+    }
+    
+    // The removed parcel, or null when there was none (or another thread removed it first)
+    public Parcel removeParcel(String id) {
+        long code = codec.lookup(id);
+        Parcel parcel = code == ParcelIdCodec.NO_ID ? null : takeParcel(code);
         if (parcel != null) {
-            Log.getInstance().addLog("Parcel processed: " + id);
+            Log.getInstance().addParcelEvent(LogEventType.PARCEL_PROCESSED, id);
+        }
+        return parcel;
+    }
+    
+    // Removes the parcel if present, without logging, and returns it as a standalone copy that
+    // stays valid after removal (unlike a store view). Atomic: of several threads taking the same
+    // parcel exactly one gets it, the others get null.
+    public Parcel takeParcel(long code) {
+        Stripe stripe = stripeOf(code);
+        Parcel parcel;
+        synchronized (stripe) {
+            parcel = stripe.parcels.remove(code);
+            if (parcel == null) {
+                return null;
+            }
+            unindex(stripe, parcel);
+            size.decrementAndGet();
+        }
+        version.increment();
+        fireChanged(code);
+        return parcel;
+    }
+    
+    // Bulk restore paths (snapshots, journal replay) re-insert parcels without logging each one
+    void restoreParcel(Parcel parcel) {
+        put(parcel);
+    }
+    
+    void clear() {
+        lockAll(0, () -> {
+            for (Stripe stripe : stripes) {
+                stripe.parcels.clear();
+                stripe.byAge.clear();
+            }
+            bySize.clear();
+            byWeight = null;
+            size.set(0);
+        });
+        version.increment();
+        for (Listener listener : listeners) {
+            listener.parcelsReset();
+        }
+    }
+    
+    // Indexes hold the store's own representation, which may be a view rather than parcel
+    private void put(Parcel parcel) {
+        parcel = parcel.onClock(clock);
+        long code = codec.encode(parcel.getID());
+        Stripe stripe = stripeOf(code);
+        synchronized (stripe) {
+            Parcel previous = stripe.parcels.put(parcel);
+            if (previous != null) {
+                unindex(stripe, previous);
+            } else {
+                size.incrementAndGet();
+            }
+            Parcel stored = stripe.parcels.get(code);
+            bySize.add(stored);
+            stripe.byAge.add(stored);
+            ParcelIndex weights = byWeight;
+            if (weights != null) {
+                weights.add(stored);
+            }
         }
+        version.increment();
+        fireChanged(code);
     }
     
+    // Outside the stripe lock, so listeners may look parcels up without lock-order trouble
+    private void fireChanged(long code) {
+        for (Listener listener : listeners) {
+            listener.parcelChanged(code);
+        }
+    }
+    
+    // Called with the stripe's lock held
+    private void unindex(Stripe stripe, Parcel parcel) {
+        bySize.remove(parcel);
+        stripe.byAge.remove(parcel);
+        ParcelIndex weights = byWeight;
+        if (weights != null) {
+            weights.remove(parcel);
+        }
+    }
+    
+    private Stripe stripeOf(long code) {
+        // High bits of the product: the stores hash the low bits of the same code
+        return stripes[(int) ((code * 0x9E3779B97F4A7C15L) >>> 40) & stripeMask];
+    }
+    
+    // Runs the action holding every stripe's lock, taken in index order
+    private void lockAll(int from, Runnable action) {
+        if (from == stripes.length) {
+            action.run();
+            return;
+        }
+        synchronized (stripes[from]) {
+            lockAll(from + 1, action);
+        }
+    }
+    
+    public int size() {
+        return size.get();
+    }
+    
+    // Read-only live view: no copy, reflects later changes. Iteration copies one stripe at a
+    // time, so it never fails on concurrent changes.
     public Map<String, Parcel> getAllParcels() {
-        return new HashMap<>(parcels);
+        return view;
+    }
+    
+    // Read-only live view, largest volume first (ties by parcel ID). Like lookups, it hands out
+    // the store's parcels, views with the columnar store; snapshot() copies them.
+    public Collection<Parcel> getParcelsBySize() {
+        return bySize.values();
+    }
+    
+    public List<Parcel> getLargestParcels(int count) {
+        return detached(() -> bySize.largest(count));
+    }
+    
+    // Parcels whose volume is within [min, max], largest first
+    public List<Parcel> getParcelsByVolume(float min, float max) {
+        return detached(() -> bySize.range(min, max));
+    }
+    
+    public List<Parcel> getHeaviestParcels(int count) {
+        ParcelIndex weights = weightIndex();
+        return detached(() -> weights.largest(count));
+    }
+    
+    public List<Parcel> getParcelsByWeight(float min, float max) {
+        ParcelIndex weights = weightIndex();
+        return detached(() -> weights.range(min, max));
+    }
+    
+    // Parcels stored more than the given number of days, longest stored first
+    public List<Parcel> getParcelsStoredLongerThan(int days) {
+        List<Parcel> result = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                detach(stripe, stripe.byAge.olderThan(days), result);
+            }
+        }
+        if (stripes.length > 1) {
+            result.sort(Comparator.comparingLong(Parcel::getArrivalDay));
+        }
+        return result;
+    }
+    
+    // The limit longest stored of those, for reports that list only the top of a large result.
+    // Each stripe hands over at most limit parcels, so the cost follows the limit, not the count.
+    public List<Parcel> getParcelsStoredLongerThan(int days, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative: " + limit);
+        }
+        List<Parcel> result = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                detach(stripe, stripe.byAge.olderThan(days, limit), result);
+            }
+        }
+        if (stripes.length > 1) {
+            result.sort(Comparator.comparingLong(Parcel::getArrivalDay));
+            if (result.size() > limit) {
+                result = new ArrayList<>(result.subList(0, limit));
+            }
+        }
+        return result;
+    }
+    
+    public int countParcelsStoredLongerThan(int days) {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.byAge.countOlderThan(days);
+            }
+        }
+        return count;
+    }
+    
+    // Storage days -> parcel count, ascending by days
+    public SortedMap<Integer, Integer> getAgeHistogram() {
+        if (stripes.length == 1) {
+            synchronized (stripes[0]) {
+                return stripes[0].byAge.histogram();
+            }
+        }
+        TreeMap<Integer, Integer> histogram = new TreeMap<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Map.Entry<Integer, Integer> bucket : stripe.byAge.histogram().entrySet()) {
+                    histogram.merge(bucket.getKey(), bucket.getValue(), Integer::sum);
+                }
+            }
+        }
+        return Collections.unmodifiableSortedMap(histogram);
+    }
+    
+    // Visits every parcel's attributes stripe by stripe, in each stripe's storage order, without
+    // materialising parcels. The visitor runs with the stripe locked and must not call back here.
+    public void scan(ParcelStore.RowVisitor visitor) {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.parcels.scan(visitor);
+            }
+        }
+    }
+    
+    // Every parcel's attributes for Worker's batch computations, in scan order
+    public ParcelBatch toBatch() {
+        ParcelBatch batch = new ParcelBatch(size());
+        scan(batch);
+        return batch;
+    }
+    
+    private ParcelIndex weightIndex() {
+        ParcelIndex weights = byWeight;
+        if (weights == null) {
+            synchronized (this) {
+                if (byWeight == null) {
+                    // With every stripe locked, no parcel can slip in between the copy and the
+                    // index going live
+                    lockAll(0, () -> {
+                        ParcelIndex index = new ParcelIndex(Parcel::getWeight);
+                        for (Stripe stripe : stripes) {
+                            for (Parcel parcel : stripe.parcels.values()) {
+                                index.add(parcel);
+                            }
+                        }
+                        byWeight = index;
+                    });
+                }
+                weights = byWeight;
+            }
+        }
+        return weights;
+    }
+    
+    // Immutable point-in-time list of all parcels, largest first. The first call after any
+    // change copies the whole map, O(n); calls without changes in between return the same
+    // instance. Successive copies share nothing, so a refresh after every change pays O(n).
+    public synchronized List<Parcel> snapshot() {
+        long current = version.sum();
+        if (snapshotVersion != current) {
+            snapshot = List.copyOf(detached(bySize::values));
+            snapshotVersion = current;
+        }
+        return snapshot;
+    }
+    
+    // Runs an index query with every stripe locked, so each parcel it yields is still stored,
+    // and copies the parcels out of their stores
+    private List<Parcel> detached(Supplier<Collection<Parcel>> query) {
+        List<Parcel> result = new ArrayList<>();
+        lockAll(0, () -> {
+            for (Parcel parcel : query.get()) {
+                result.add(stripeOf(codec.lookup(parcel.getID())).parcels.detach(parcel));
+            }
+        });
+        return result;
+    }
+    
+    // Called with the stripe's lock held
+    private static void detach(Stripe stripe, List<Parcel> parcels, List<Parcel> result) {
+        for (Parcel parcel : parcels) {
+            result.add(stripe.parcels.detach(parcel));
+        }
+    }
+    
+    // Iterates a copy of one stripe's parcels at a time
+    private class StripeIterator implements Iterator<Parcel> {
+        private int nextStripe;
+        private Parcel[] batch = new Parcel[0];
+        private int next;
+        
+        @Override
+        public boolean hasNext() {
+            while (next == batch.length && nextStripe < stripes.length) {
+                Stripe stripe = stripes[nextStripe++];
+                synchronized (stripe) {
+                    batch = stripe.parcels.values().toArray(new Parcel[0]);
+                }
+                next = 0;
+            }
+            return next < batch.length;
+        }
+        
+        @Override
+        public Parcel next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return batch[next++];
+        }
+    }
+    
+    private class MapView extends AbstractMap<String, Parcel> {
+        private final Set<Map.Entry<String, Parcel>> entries = new AbstractSet<Map.Entry<String, Parcel>>() {
+            @Override
+            public Iterator<Map.Entry<String, Parcel>> iterator() {
+                Iterator<Parcel> parcels = new StripeIterator();
+                return new Iterator<Map.Entry<String, Parcel>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return parcels.hasNext();
+                    }
+                    
+                    @Override
+                    public Map.Entry<String, Parcel> next() {
+                        Parcel parcel = parcels.next();
+                        return new AbstractMap.SimpleImmutableEntry<>(parcel.getID(), parcel);
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return ParcelMap.this.size();
+            }
+        };
+        
+        @Override
+        public Set<Map.Entry<String, Parcel>> entrySet() {
+            return entries;
+        }
+        
+        @Override
+        public Parcel get(Object key) {
+            return key instanceof String ? getParcel((String) key) : null;
+        }
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+        
+        @Override
+        public int size() {
+            return ParcelMap.this.size();
+        }
     }
-} 
\ No newline at end of file
+}
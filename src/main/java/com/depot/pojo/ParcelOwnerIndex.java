@@ -0,0 +1,127 @@
+package com.depot.pojo;
+
+import com.depot.pojo.common.Customer;
+import com.depot.pojo.common.LongHashSet;
+import com.depot.pojo.common.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+
+// Parcel code -> sequence number of the queued customer that owns it, kept by Manager as
+// customers join and leave the queue, plus the set of owned codes that have no parcel in the
+// ParcelMap (dangling references), kept through ParcelMap's listener. When several customers
+// list the same parcel the one served first (lowest sequence number) owns it, and the others
+// take over in that order as owners leave the queue. Synchronized, since parcel changes are
+// reported on whichever thread makes them.
+class ParcelOwnerIndex implements ParcelMap.Listener {
+    static final int NO_OWNER = -1;
+
+    private final ParcelMap parcelMap;
+    private final LongIntHashMap owners = new LongIntHashMap(NO_OWNER);
+    // Other customers listing an owned parcel, ascending sequence numbers
+    private final Map<Long, List<Integer>> waiting = new HashMap<>();
+    private final LongHashSet dangling = new LongHashSet();
+
+    ParcelOwnerIndex(ParcelMap parcelMap) {
+        this.parcelMap = parcelMap;
+        parcelMap.addListener(this);
+    }
+
+    synchronized void addCustomer(Customer customer) {
+        for (int i = 0; i < customer.getParcelCount(); i++) {
+            addParcel(customer, customer.getParcelCode(i));
+        }
+    }
+
+    // A parcel assigned to a customer already in the queue
+    synchronized void addParcel(Customer customer, long code) {
+        int sequenceNum = customer.getSequenceNum();
+        int owner = owners.get(code);
+        if (owner == NO_OWNER) {
+            owners.put(code, sequenceNum);
+            if (parcelMap.getParcel(code) == null) {
+                dangling.add(code);
+            }
+        } else if (owner != sequenceNum) {
+            List<Integer> later = waiting.computeIfAbsent(code, k -> new ArrayList<>(2));
+            if (sequenceNum < owner) {
+                owners.put(code, sequenceNum);
+                sequenceNum = owner;
+            }
+            int position = Collections.binarySearch(later, sequenceNum);
+            if (position < 0) {
+                later.add(~position, sequenceNum);
+            }
+        }
+    }
+
+    synchronized void removeCustomer(Customer customer) {
+        Integer sequenceNum = customer.getSequenceNum();
+        for (int i = 0; i < customer.getParcelCount(); i++) {
+            long code = customer.getParcelCode(i);
+            List<Integer> later = waiting.get(code);
+            if (owners.get(code) == sequenceNum) {
+                if (later == null) {
+                    owners.remove(code);
+                    dangling.remove(code);
+                } else {
+                    owners.put(code, later.remove(0));
+                    if (later.isEmpty()) {
+                        waiting.remove(code);
+                    }
+                }
+            } else if (later != null && later.remove(sequenceNum) && later.isEmpty()) {
+                waiting.remove(code);
+            }
+        }
+    }
+
+    synchronized void clear() {
+        owners.clear();
+        waiting.clear();
+        dangling.clear();
+    }
+
+    synchronized int getOwner(long code) {
+        return owners.get(code);
+    }
+
+    synchronized int getDanglingCount() {
+        return dangling.size();
+    }
+
+    // A copy, since listeners may change the set while the caller iterates
+    synchronized PrimitiveIterator.OfLong danglingCodes() {
+        long[] codes = new long[dangling.size()];
+        PrimitiveIterator.OfLong iterator = dangling.iterator();
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = iterator.nextLong();
+        }
+        return Arrays.stream(codes).iterator();
+    }
+
+    @Override
+    public synchronized void parcelChanged(long code) {
+        if (owners.containsKey(code)) {
+            if (parcelMap.getParcel(code) == null) {
+                dangling.add(code);
+            } else {
+                dangling.remove(code);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void parcelsReset() {
+        // Restores clear the map and re-add every parcel, each reported through parcelChanged
+        dangling.clear();
+        for (PrimitiveIterator.OfLong codes = owners.keys(); codes.hasNext(); ) {
+            dangling.add(codes.nextLong());
+        }
+    }
+}
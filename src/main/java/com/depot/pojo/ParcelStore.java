@@ -0,0 +1,49 @@
+package com.depot.pojo;
+
+import com.depot.pojo.common.Parcel;
+import com.depot.pojo.common.ParcelIdCodec;
+
+import java.util.Collection;
+import java.util.Map;
+
+// Backing storage of a ParcelMap. Parcels handed out by get, values and asMap may be views
+// onto the store: they stay valid while the parcel is stored. put and remove return the
+// previous parcel as a standalone copy that outlives the store entry. Parcels are keyed by
+// their ParcelIdCodec code; the string forms look the code up first.
+public interface ParcelStore {
+    // Column-wise visit of every stored parcel, without creating Parcel objects
+    interface RowVisitor {
+        void visit(int days, float weight, float length, float width, float height);
+    }
+
+    Parcel get(long code);
+
+    Parcel put(Parcel parcel);
+
+    Parcel remove(long code);
+
+    default Parcel get(String id) {
+        return get(ParcelIdCodec.getInstance().lookup(id));
+    }
+
+    default Parcel remove(String id) {
+        return remove(ParcelIdCodec.getInstance().lookup(id));
+    }
+
+    int size();
+
+    void clear();
+
+    Collection<Parcel> values();
+
+    // Read-only live map view
+    Map<String, Parcel> asMap();
+
+    void scan(RowVisitor visitor);
+
+    // A standalone copy of a parcel this store handed out, still valid once the parcel is
+    // removed. Call it while the parcel is stored; stores without views return the parcel.
+    default Parcel detach(Parcel parcel) {
+        return parcel;
+    }
+}
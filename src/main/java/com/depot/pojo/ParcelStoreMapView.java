@@ -0,0 +1,62 @@
+package com.depot.pojo;
+
+import com.depot.pojo.common.Parcel;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+// Read-only live Map<String, Parcel> over a store that is not keyed by the ID string itself.
+// Lookups go through the store; iteration walks its values and keys each entry by getID().
+class ParcelStoreMapView extends AbstractMap<String, Parcel> {
+    private final ParcelStore store;
+    private final Set<Map.Entry<String, Parcel>> entries = new AbstractSet<Map.Entry<String, Parcel>>() {
+        @Override
+        public Iterator<Map.Entry<String, Parcel>> iterator() {
+            Iterator<Parcel> parcels = store.values().iterator();
+            return new Iterator<Map.Entry<String, Parcel>>() {
+                @Override
+                public boolean hasNext() {
+                    return parcels.hasNext();
+                }
+
+                @Override
+                public Map.Entry<String, Parcel> next() {
+                    Parcel parcel = parcels.next();
+                    return new AbstractMap.SimpleImmutableEntry<>(parcel.getID(), parcel);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return store.size();
+        }
+    };
+
+    ParcelStoreMapView(ParcelStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Parcel>> entrySet() {
+        return entries;
+    }
+
+    @Override
+    public Parcel get(Object key) {
+        return key instanceof String ? store.get((String) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+}
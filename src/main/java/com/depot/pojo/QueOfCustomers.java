@@ -1,33 +1,135 @@
 package com.depot.pojo;
 
 import com.depot.pojo.common.Customer;
-import java.util.LinkedList;
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Queue;
 
+// FIFO of customers indexed by sequence number: the linked map keeps arrival order for
+// iteration and the head, and finding or removing any customer by number is O(1).
+// Every method holds the owner's monitor: the Manager changes the queue under its own lock, so
+// a counter's change is never seen half done by the GUI or an HTTP handler reading it meanwhile.
 public class QueOfCustomers {
-    private Queue<Customer> customers;
+    private final Object lock;
+    private final LinkedHashMap<Integer, Customer> customers;
+    private final Queue<Customer> view;
+    private int version;
+    private int snapshotVersion = -1;
+    private List<Customer> snapshot;
     
     public QueOfCustomers() {
-        customers = new LinkedList<>();
+        this(null);
+    }
+    
+    // Guarded by the given monitor, or by the queue itself when it is null
+    QueOfCustomers(Object lock) {
+        this.lock = lock != null ? lock : this;
+        customers = new LinkedHashMap<>();
+        view = new ReadOnlyQueue();
     }
     
     public void addCustomer(Customer customer) {
-        customers.offer(customer);
+        synchronized (lock) {
+            Integer sequenceNum = customer.getSequenceNum();
+            if (customers.putIfAbsent(sequenceNum, customer) != null) {
+                throw new IllegalArgumentException("Duplicate customer sequence number: " + sequenceNum);
+            }
+            version++;
+        }
     }
     
     public Customer removeCustomer() {
-        return customers.poll();
+        synchronized (lock) {
+            Customer customer = getHead();
+            if (customer != null) {
+                customers.remove(customer.getSequenceNum());
+                version++;
+            }
+            return customer;
+        }
+    }
+    
+    // Removes the customer wherever it is in the queue; null when there is none with the number
+    public Customer removeCustomer(int sequenceNum) {
+        synchronized (lock) {
+            Customer customer = customers.remove(sequenceNum);
+            if (customer != null) {
+                version++;
+            }
+            return customer;
+        }
+    }
+    
+    public Customer getCustomer(int sequenceNum) {
+        synchronized (lock) {
+            return customers.get(sequenceNum);
+        }
     }
     
     public Customer getHead() {
-        return customers.peek();
+        synchronized (lock) {
+            Iterator<Customer> iterator = customers.values().iterator();
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+    }
+    
+    void clear() {
+        synchronized (lock) {
+            customers.clear();
+            version++;
+        }
     }
     
     public int getSize() {
-        return customers.size();
+        synchronized (lock) {
+            return customers.size();
+        }
     }
     
+    // Read-only view in queue order that follows later changes. Each iteration walks the
+    // snapshot current when it starts, so it never fails on a concurrent change.
     public Queue<Customer> getCustomers() {
-        return new LinkedList<>(customers);
+        return view;
+    }
+    
+    // Immutable point-in-time list in queue order, cached until the queue changes. The first
+    // call after a change copies the whole queue, O(n); copies share no structure.
+    public List<Customer> snapshot() {
+        synchronized (lock) {
+            if (snapshotVersion != version) {
+                snapshot = List.copyOf(customers.values());
+                snapshotVersion = version;
+            }
+            return snapshot;
+        }
+    }
+    
+    private class ReadOnlyQueue extends AbstractQueue<Customer> {
+        @Override
+        public Iterator<Customer> iterator() {
+            return snapshot().iterator();
+        }
+        
+        @Override
+        public int size() {
+            return getSize();
+        }
+        
+        @Override
+        public boolean offer(Customer customer) {
+            throw new UnsupportedOperationException("Customer queue view is read-only");
+        }
+        
+        @Override
+        public Customer poll() {
+            throw new UnsupportedOperationException("Customer queue view is read-only");
+        }
+        
+        @Override
+        public Customer peek() {
+            return getHead();
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,130 @@
+package com.depot.pojo;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Every fee charged, with its depot date, customer and parcel, plus running per-day totals.
+// Charges are kept column-wise in growable arrays so millions of them stay compact. Totals
+// live in a per-day array with a Fenwick tree over it: a day's total is O(1) and any date
+// range (week, month, ...) is O(log days) without rescanning charges.
+public class RevenueLedger {
+    public static class Charge {
+        private final LocalDate date;
+        private final int customerSeq;
+        private final String parcelId;
+        private final float fee;
+
+        Charge(LocalDate date, int customerSeq, String parcelId, float fee) {
+            this.date = date;
+            this.customerSeq = customerSeq;
+            this.parcelId = parcelId;
+            this.fee = fee;
+        }
+
+        public LocalDate getDate() { return date; }
+        public int getCustomerSeq() { return customerSeq; }
+        public String getParcelId() { return parcelId; }
+        public float getFee() { return fee; }
+    }
+
+    private int[] chargeDays = new int[1024];
+    private int[] customerSeqs = new int[1024];
+    private String[] parcelIds = new String[1024];
+    private float[] fees = new float[1024];
+    private int count;
+
+    // daily[i] and tree cover epoch days firstDay .. firstDay + daily.length - 1
+    private long firstDay;
+    private double[] daily = new double[0];
+    private double[] tree = new double[1];
+    private double total;
+
+    public void record(long epochDay, int customerSeq, String parcelId, float fee) {
+        if (count == fees.length) {
+            int capacity = count + (count >> 1);
+            chargeDays = Arrays.copyOf(chargeDays, capacity);
+            customerSeqs = Arrays.copyOf(customerSeqs, capacity);
+            parcelIds = Arrays.copyOf(parcelIds, capacity);
+            fees = Arrays.copyOf(fees, capacity);
+        }
+        chargeDays[count] = (int) epochDay;
+        customerSeqs[count] = customerSeq;
+        parcelIds[count] = parcelId;
+        fees[count] = fee;
+        count++;
+        addToDay(epochDay, fee);
+    }
+
+    public int getChargeCount() {
+        return count;
+    }
+
+    public Charge getCharge(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Charge " + index + " of " + count);
+        }
+        return new Charge(LocalDate.ofEpochDay(chargeDays[index]), customerSeqs[index], parcelIds[index], fees[index]);
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public double getDayTotal(LocalDate date) {
+        long index = date.toEpochDay() - firstDay;
+        return index >= 0 && index < daily.length ? daily[(int) index] : 0;
+    }
+
+    // Sum over from..to, both inclusive
+    public double getRangeTotal(LocalDate from, LocalDate to) {
+        long start = Math.max(from.toEpochDay() - firstDay, 0);
+        long end = Math.min(to.toEpochDay() - firstDay, daily.length - 1L);
+        if (start > end) {
+            return 0;
+        }
+        return prefix((int) end) - (start == 0 ? 0 : prefix((int) start - 1));
+    }
+
+    private void addToDay(long epochDay, double amount) {
+        if (daily.length == 0) {
+            firstDay = epochDay;
+            resize(firstDay, 64);
+        } else if (epochDay < firstDay) {
+            long newFirst = Math.min(epochDay, firstDay - daily.length);
+            resize(newFirst, (int) (firstDay - newFirst) + daily.length);
+        } else if (epochDay - firstDay >= daily.length) {
+            resize(firstDay, (int) Math.max(epochDay - firstDay + 1, daily.length * 2L));
+        }
+        int index = (int) (epochDay - firstDay);
+        daily[index] += amount;
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += amount;
+        }
+        total += amount;
+    }
+
+    // Re-bases the day arrays and rebuilds the tree in O(days)
+    private void resize(long newFirst, int length) {
+        double[] resized = new double[length];
+        System.arraycopy(daily, 0, resized, (int) (firstDay - newFirst), daily.length);
+        daily = resized;
+        firstDay = newFirst;
+        tree = new double[length + 1];
+        for (int i = 1; i <= length; i++) {
+            tree[i] += daily[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    // Sum of daily[0..index]
+    private double prefix(int index) {
+        double sum = 0;
+        for (int i = index + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+}
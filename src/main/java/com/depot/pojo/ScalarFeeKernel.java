@@ -0,0 +1,30 @@
+package com.depot.pojo;
+
+// Plain loops over the batch columns; also finishes the tail the vector kernel leaves
+class ScalarFeeKernel implements FeeKernel {
+    @Override
+    public void fees(ParcelBatch batch, float[] out, float weightRate, float volumeRate, float dayRate) {
+        fees(batch, out, 0, weightRate, volumeRate, dayRate);
+    }
+
+    @Override
+    public void sizeClasses(ParcelBatch batch, int[] out, float mediumAbove, float largeAbove) {
+        sizeClasses(batch, out, 0, mediumAbove, largeAbove);
+    }
+
+    // Same operations in the same order as the linear Tariff formula
+    static void fees(ParcelBatch batch, float[] out, int from, float weightRate, float volumeRate, float dayRate) {
+        for (int i = from; i < batch.size; i++) {
+            out[i] = batch.weights[i] * weightRate
+                + batch.lengths[i] * batch.widths[i] * batch.heights[i] * volumeRate
+                + batch.days[i] * dayRate;
+        }
+    }
+
+    static void sizeClasses(ParcelBatch batch, int[] out, int from, float mediumAbove, float largeAbove) {
+        for (int i = from; i < batch.size; i++) {
+            float volume = batch.lengths[i] * batch.widths[i] * batch.heights[i];
+            out[i] = volume > largeAbove ? 2 : volume > mediumAbove ? 1 : 0;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.depot.pojo;
+
+import com.depot.pojo.common.DepotClock;
+import com.depot.pojo.common.Parcel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+// Loads Custs.csv and then Parcels.csv in batches so the depot is usable before the files are
+// fully read. run() reads and parses on the calling thread; every parsed batch is applied to
+// the Manager through the given executor (e.g. SwingUtilities::invokeLater), which must run
+// tasks in submission order. Customers are numbered in file order as with initSystem.
+// Cancelling stops reading; batches already applied stay in the depot.
+public class StreamingImport {
+    public interface Listener {
+        void onProgress(ImportProgress progress);
+        void onFinished(ImportProgress progress, boolean cancelled);
+        void onError(IOException e);
+    }
+
+    private static final int BLOCK_SIZE = 1 << 20;
+    private static final int MAX_PENDING_BATCHES = 4;
+
+    private final Manager manager;
+    private final Path customerFile;
+    private final Path parcelFile;
+    private final int batchSize;
+    private final Semaphore pendingBatches = new Semaphore(MAX_PENDING_BATCHES);
+    private volatile boolean cancelled;
+    private long totalBytes;
+    private long bytesRead;
+    private long rows;
+    private long startNanos;
+
+    public StreamingImport(Manager manager, Path customerFile, Path parcelFile) {
+        this(manager, customerFile, parcelFile, 10000);
+    }
+
+    public StreamingImport(Manager manager, Path customerFile, Path parcelFile, int batchSize) {
+        this.manager = manager;
+        this.customerFile = customerFile;
+        this.parcelFile = parcelFile;
+        this.batchSize = batchSize;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void run(Executor applier, Listener listener) {
+        startNanos = System.nanoTime();
+        LoadReport customerReport = new LoadReport();
+        LoadReport parcelReport = new LoadReport();
+        try {
+            totalBytes = Files.size(customerFile) + Files.size(parcelFile);
+            stream(customerFile, ImportProgress.Phase.CUSTOMERS, CustomerCsvLoader::parseRows,
+                manager::applyCustomerRows, customerReport, applier, listener);
+            if (!cancelled) {
+                applier.execute(manager::completeCustomerImport);
+                DepotClock clock = manager.getClock();
+                stream(parcelFile, ImportProgress.Phase.PARCELS,
+                    (scanner, sink, report) -> ParcelCsvLoader.parseRows(scanner, clock, sink, report),
+                    manager::applyParcels, parcelReport, applier, listener);
+            }
+        } catch (IOException e) {
+            applier.execute(() -> listener.onError(e));
+            return;
+        }
+        ImportProgress last = progress(ImportProgress.Phase.PARCELS);
+        boolean wasCancelled = cancelled;
+        applier.execute(() -> {
+            if (!wasCancelled) {
+                manager.completeParcelImport(parcelReport);
+            }
+            listener.onFinished(last, wasCancelled);
+        });
+    }
+
+    private <T> void stream(Path file, ImportProgress.Phase phase, ParallelCsvImporter.RowParser<T> parser,
+                            Consumer<List<T>> apply, LoadReport report, Executor applier,
+                            Listener listener) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+            long nextLine = 1;
+            boolean endOfInput = false;
+            List<T> batch = new ArrayList<>(batchSize);
+            while (!endOfInput && !cancelled) {
+                if (!buffer.hasRemaining()) {
+                    // A single line longer than the buffer: grow it
+                    ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                }
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    endOfInput = true;
+                } else {
+                    bytesRead += read;
+                }
+
+                buffer.flip();
+                CsvScanner scanner = new CsvScanner(buffer, 0, buffer.limit(), endOfInput, nextLine);
+                long before = report.getLoadedCount();
+                parser.parseRows(scanner, batch::add, report);
+                rows += report.getLoadedCount() - before;
+                nextLine = scanner.getLineNumber() + 1;
+                buffer.position(scanner.getPosition());
+                buffer.compact();
+
+                if (batch.size() >= batchSize || (endOfInput && !batch.isEmpty())) {
+                    publish(batch, phase, apply, applier, listener);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+    }
+
+    private <T> void publish(List<T> batch, ImportProgress.Phase phase, Consumer<List<T>> apply,
+                             Executor applier, Listener listener) {
+        // Back-pressure: never run more than a few batches ahead of the applier
+        pendingBatches.acquireUninterruptibly();
+        ImportProgress progress = progress(phase);
+        applier.execute(() -> {
+            try {
+                if (!cancelled) {
+                    apply.accept(batch);
+                    listener.onProgress(progress);
+                }
+            } finally {
+                pendingBatches.release();
+            }
+        });
+    }
+
+    private ImportProgress progress(ImportProgress.Phase phase) {
+        long elapsed = (System.nanoTime() - startNanos) / 1_000_000;
+        return new ImportProgress(phase, rows, bytesRead, totalBytes, elapsed);
+    }
+}
@@ -0,0 +1,285 @@
+package com.depot.pojo;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+// Fee rules read from a properties file and compiled once into a FeeFunction. Every key is
+// optional; an empty file gives the original formula and size classes bit for bit.
+//
+//   rate.weight=0.5  rate.volume=0.001  rate.day=1.0
+//       fee = weight * rate.weight + volume * rate.volume + days * rate.day
+//   class.medium.above=5000  class.large.above=10000
+//       size classes by volume (strictly above)
+//   class.<small|medium|large>.rate.<weight|volume|day>=...
+//       per-class rate overrides
+//   tier.<name>.from=30  tier.<name>.rate=2.0
+//       storage days beyond 'from' are charged at this day rate (progressive)
+//   surcharge.<name>.on=<weight|volume|days|class>  surcharge.<name>.above=30  surcharge.<name>.amount=5
+//       flat amount added when the attribute is strictly above the limit
+//   fee.min=...  fee.max=...
+//       caps, applied last
+//
+// A tariff with only base rates compiles to the plain formula and can run on the batch kernels;
+// anything else compiles to a table-driven evaluator with storage fees precomputed per day.
+public final class Tariff {
+    public interface FeeFunction {
+        float fee(int days, float weight, float length, float width, float height);
+    }
+
+    static final String[] CLASS_NAMES = {"small", "medium", "large"};
+    private static final String[] RATE_NAMES = {"weight", "volume", "day"};
+    private static final String[] SURCHARGE_ATTRIBUTES = {"weight", "volume", "days", "class"};
+    // Storage fee tables stop here; longer storage is computed from the last segment
+    private static final int MAX_TABLE_DAYS = 3650;
+
+    private static final Tariff DEFAULT = parse("");
+
+    private final String source;
+    // [class][weight, volume, day]
+    private final float[][] rates = new float[3][];
+    private final float mediumAbove;
+    private final float largeAbove;
+    private final int[] tierFrom;
+    private final float[] tierRate;
+    private final int[] surchargeOn;
+    private final float[] surchargeAbove;
+    private final float[] surchargeAmount;
+    private final float minFee;
+    private final float maxFee;
+    private final boolean linear;
+    // [class][days], only for tiered tariffs
+    private float[][] storageTable;
+    private final FeeFunction function;
+
+    private Tariff(String source, Properties properties) {
+        this.source = source;
+        TreeSet<String> unused = new TreeSet<>(properties.stringPropertyNames());
+        float[] base = {
+            number(properties, unused, "rate.weight", 0.5f),
+            number(properties, unused, "rate.volume", 0.001f),
+            number(properties, unused, "rate.day", 1.0f)
+        };
+        for (int c = 0; c < 3; c++) {
+            rates[c] = new float[3];
+            for (int r = 0; r < 3; r++) {
+                rates[c][r] = number(properties, unused, "class." + CLASS_NAMES[c] + ".rate." + RATE_NAMES[r], base[r]);
+            }
+        }
+        mediumAbove = number(properties, unused, "class.medium.above", 5000f);
+        largeAbove = number(properties, unused, "class.large.above", 10000f);
+        if (!(mediumAbove <= largeAbove)) {
+            throw new IllegalArgumentException("class.medium.above must not exceed class.large.above");
+        }
+
+        // Tiers ordered by their starting day
+        TreeMap<Integer, Float> tiers = new TreeMap<>();
+        for (String name : names(properties, "tier.")) {
+            float from = number(properties, unused, "tier." + name + ".from", Float.NaN);
+            float rate = number(properties, unused, "tier." + name + ".rate", Float.NaN);
+            if (from != (int) from || from < 0 || Float.isNaN(rate)) {
+                throw new IllegalArgumentException("tier." + name + " needs a whole 'from' day and a 'rate'");
+            }
+            if (tiers.put((int) from, rate) != null) {
+                throw new IllegalArgumentException("Two tiers start at day " + (int) from);
+            }
+        }
+        tierFrom = tiers.keySet().stream().mapToInt(Integer::intValue).toArray();
+        tierRate = new float[tierFrom.length];
+        for (int i = 0; i < tierFrom.length; i++) {
+            tierRate[i] = tiers.get(tierFrom[i]);
+        }
+
+        List<String> surcharges = new ArrayList<>(names(properties, "surcharge."));
+        surchargeOn = new int[surcharges.size()];
+        surchargeAbove = new float[surcharges.size()];
+        surchargeAmount = new float[surcharges.size()];
+        for (int i = 0; i < surcharges.size(); i++) {
+            String key = "surcharge." + surcharges.get(i);
+            String on = properties.getProperty(key + ".on");
+            unused.remove(key + ".on");
+            surchargeOn[i] = Arrays.asList(SURCHARGE_ATTRIBUTES).indexOf(on == null ? "" : on.trim());
+            if (surchargeOn[i] < 0) {
+                throw new IllegalArgumentException(key + ".on must be one of " + Arrays.toString(SURCHARGE_ATTRIBUTES));
+            }
+            surchargeAbove[i] = number(properties, unused, key + ".above", Float.NEGATIVE_INFINITY);
+            surchargeAmount[i] = number(properties, unused, key + ".amount", Float.NaN);
+            if (Float.isNaN(surchargeAmount[i])) {
+                throw new IllegalArgumentException(key + ".amount is required");
+            }
+        }
+
+        minFee = number(properties, unused, "fee.min", Float.NEGATIVE_INFINITY);
+        maxFee = number(properties, unused, "fee.max", Float.POSITIVE_INFINITY);
+        if (!(minFee <= maxFee)) {
+            throw new IllegalArgumentException("fee.min must not exceed fee.max");
+        }
+        if (!unused.isEmpty()) {
+            throw new IllegalArgumentException("Unknown tariff keys: " + unused);
+        }
+
+        linear = Arrays.equals(rates[0], rates[1]) && Arrays.equals(rates[0], rates[2])
+            && tierFrom.length == 0 && surchargeOn.length == 0
+            && minFee == Float.NEGATIVE_INFINITY && maxFee == Float.POSITIVE_INFINITY;
+        function = compile();
+    }
+
+    public static Tariff defaults() {
+        return DEFAULT;
+    }
+
+    public static Tariff load(Path file) throws IOException {
+        return parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    // Throws IllegalArgumentException for malformed or unknown keys
+    public static Tariff parse(String text) {
+        Properties properties = new Properties();
+        try {
+            properties.load(new StringReader(text));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed tariff: " + e.getMessage());
+        }
+        return new Tariff(text, properties);
+    }
+
+    public float fee(int days, float weight, float length, float width, float height) {
+        return function.fee(days, weight, length, width, height);
+    }
+
+    public FeeFunction getFeeFunction() {
+        return function;
+    }
+
+    // 0 small, 1 medium, 2 large
+    public int sizeClass(float volume) {
+        if (volume > largeAbove) return 2;
+        else if (volume > mediumAbove) return 1;
+        else return 0;
+    }
+
+    // The properties text the tariff was parsed from
+    public String getSource() {
+        return source;
+    }
+
+    // Plain weight/volume/day rates only, so batch kernels can evaluate it with the rates below
+    public boolean isLinear() {
+        return linear;
+    }
+
+    public float getWeightRate() {
+        return rates[0][0];
+    }
+
+    public float getVolumeRate() {
+        return rates[0][1];
+    }
+
+    public float getDayRate() {
+        return rates[0][2];
+    }
+
+    public float getMediumAbove() {
+        return mediumAbove;
+    }
+
+    public float getLargeAbove() {
+        return largeAbove;
+    }
+
+    private FeeFunction compile() {
+        if (linear) {
+            // Same operations in the same order as the original hardcoded formula
+            float weightRate = rates[0][0];
+            float volumeRate = rates[0][1];
+            float dayRate = rates[0][2];
+            return (days, weight, length, width, height) ->
+                weight * weightRate + length * width * height * volumeRate + days * dayRate;
+        }
+        float[] weightRates = {rates[0][0], rates[1][0], rates[2][0]};
+        float[] volumeRates = {rates[0][1], rates[1][1], rates[2][1]};
+        if (tierFrom.length > 0) {
+            storageTable = new float[3][];
+            int tableDays = Math.min(tierFrom[tierFrom.length - 1], MAX_TABLE_DAYS);
+            for (int c = 0; c < 3; c++) {
+                storageTable[c] = new float[tableDays + 1];
+                for (int d = 0; d <= tableDays; d++) {
+                    storageTable[c][d] = tieredStorage(c, d);
+                }
+            }
+        }
+        return (days, weight, length, width, height) -> {
+            float volume = length * width * height;
+            int sizeClass = sizeClass(volume);
+            float fee = weight * weightRates[sizeClass] + volume * volumeRates[sizeClass] + storage(sizeClass, days);
+            for (int i = 0; i < surchargeOn.length; i++) {
+                float value;
+                switch (surchargeOn[i]) {
+                    case 0: value = weight; break;
+                    case 1: value = volume; break;
+                    case 2: value = days; break;
+                    default: value = sizeClass; break;
+                }
+                if (value > surchargeAbove[i]) {
+                    fee += surchargeAmount[i];
+                }
+            }
+            return Math.min(Math.max(fee, minFee), maxFee);
+        };
+    }
+
+    private float storage(int sizeClass, int days) {
+        if (storageTable == null) {
+            return days * rates[sizeClass][2];
+        }
+        float[] table = storageTable[sizeClass];
+        return days >= 0 && days < table.length ? table[days] : tieredStorage(sizeClass, days);
+    }
+
+    // Days up to the first tier at the class day rate, each later segment at its tier's rate
+    private float tieredStorage(int sizeClass, int days) {
+        float fee = 0;
+        int from = 0;
+        float rate = rates[sizeClass][2];
+        for (int i = 0; i < tierFrom.length && days > tierFrom[i]; i++) {
+            fee += (tierFrom[i] - from) * rate;
+            from = tierFrom[i];
+            rate = tierRate[i];
+        }
+        return fee + (days - from) * rate;
+    }
+
+    private static float number(Properties properties, TreeSet<String> unused, String key, float fallback) {
+        unused.remove(key);
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Float.parseFloat(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Tariff key " + key + " is not a number: " + value);
+        }
+    }
+
+    // Distinct <name> parts of keys shaped prefix<name>.<field>, sorted
+    private static TreeSet<String> names(Properties properties, String prefix) {
+        TreeSet<String> names = new TreeSet<>();
+        for (String key : properties.stringPropertyNames()) {
+            int dot = key.lastIndexOf('.');
+            if (key.startsWith(prefix) && dot > prefix.length()) {
+                names.add(key.substring(prefix.length(), dot));
+            }
+        }
+        return names;
+    }
+}
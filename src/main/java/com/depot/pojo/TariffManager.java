@@ -0,0 +1,119 @@
+package com.depot.pojo;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+// The tariff fees are charged with. Starts with -Ddepot.tariff.file when set (reloaded whenever
+// the file changes), otherwise with the built-in default. A reload waits until the file has been
+// quiet for 200 ms, and keeps the previous tariff when the file is empty or does not parse.
+// A save cut short after some complete lines still parses, and takes effect as written.
+public class TariffManager {
+    private static final long SETTLE_MS = 200;
+
+    private volatile Tariff current = Tariff.defaults();
+    private WatchService watcher;
+
+    private static class Holder {
+        private static final TariffManager INSTANCE = new TariffManager();
+    }
+
+    private TariffManager() {
+        String file = System.getProperty("depot.tariff.file");
+        if (file != null) {
+            try {
+                watch(Paths.get(file));
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("加载费率文件失败: " + e.getMessage());
+            }
+        }
+    }
+
+    public static TariffManager getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public Tariff current() {
+        return current;
+    }
+
+    public void set(Tariff tariff) {
+        current = tariff;
+        Log.getInstance().addLog("Tariff changed");
+    }
+
+    public void load(Path file) throws IOException {
+        current = Tariff.load(file);
+        Log.getInstance().addLog("Tariff loaded from " + file);
+    }
+
+    // Loads the file now and again every time it is written; replaces any earlier watch
+    public synchronized void watch(Path file) throws IOException {
+        Path path = file.toAbsolutePath();
+        load(path);
+        stopWatching();
+        WatchService service = path.getFileSystem().newWatchService();
+        path.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watcher = service;
+        Thread thread = new Thread(() -> watchLoop(service, path), "tariff-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stopWatching() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                System.err.println("Error closing tariff watcher: " + e.getMessage());
+            }
+            watcher = null;
+        }
+    }
+
+    private void watchLoop(WatchService service, Path file) {
+        try {
+            while (true) {
+                boolean changed = drain(service.take(), file);
+                // An editor's save is often a truncate then a write: wait until the file has
+                // been quiet for a moment so the empty intermediate is never loaded
+                WatchKey key;
+                while ((key = service.poll(SETTLE_MS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(key, file);
+                }
+                if (changed) {
+                    try {
+                        // Unlike a configured empty file, which means the defaults, this is a save
+                        // in progress or gone wrong
+                        if (Files.size(file) == 0) {
+                            throw new IOException("Tariff file is empty");
+                        }
+                        load(file);
+                    } catch (IOException | IllegalArgumentException e) {
+                        System.err.println("Tariff reload failed, keeping the previous tariff: " + e.getMessage());
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watch replaced or stopped
+        }
+    }
+
+    private static boolean drain(WatchKey key, Path file) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (file.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+}
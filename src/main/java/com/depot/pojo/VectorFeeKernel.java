@@ -0,0 +1,48 @@
+package com.depot.pojo;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Vector API kernel, loaded by Worker only when jdk.incubator.vector is in the boot layer.
+// Lanewise mul and add are the same IEEE float operations as the scalar code (no fused
+// multiply-add), so every lane gives the scalar result bit for bit.
+class VectorFeeKernel implements FeeKernel {
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+    // Same shape and so the same lane count as FLOATS
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public void fees(ParcelBatch batch, float[] out, float weightRate, float volumeRate, float dayRate) {
+        int bound = FLOATS.loopBound(batch.size);
+        int i = 0;
+        for (; i < bound; i += FLOATS.length()) {
+            FloatVector baseFee = FloatVector.fromArray(FLOATS, batch.weights, i).mul(weightRate);
+            FloatVector volumeFee = FloatVector.fromArray(FLOATS, batch.lengths, i)
+                .mul(FloatVector.fromArray(FLOATS, batch.widths, i))
+                .mul(FloatVector.fromArray(FLOATS, batch.heights, i))
+                .mul(volumeRate);
+            FloatVector days = (FloatVector) IntVector.fromArray(INTS, batch.days, i).convert(VectorOperators.I2F, 0);
+            baseFee.add(volumeFee).add(days.mul(dayRate)).intoArray(out, i);
+        }
+        ScalarFeeKernel.fees(batch, out, i, weightRate, volumeRate, dayRate);
+    }
+
+    @Override
+    public void sizeClasses(ParcelBatch batch, int[] out, float mediumAbove, float largeAbove) {
+        int bound = FLOATS.loopBound(batch.size);
+        int i = 0;
+        for (; i < bound; i += FLOATS.length()) {
+            FloatVector volume = FloatVector.fromArray(FLOATS, batch.lengths, i)
+                .mul(FloatVector.fromArray(FLOATS, batch.widths, i))
+                .mul(FloatVector.fromArray(FLOATS, batch.heights, i));
+            VectorMask<Float> medium = volume.compare(VectorOperators.GT, mediumAbove);
+            VectorMask<Float> large = volume.compare(VectorOperators.GT, largeAbove);
+            FloatVector sizeClass = FloatVector.zero(FLOATS).blend(1f, medium).blend(2f, large);
+            ((IntVector) sizeClass.convert(VectorOperators.F2I, 0)).intoArray(out, i);
+        }
+        ScalarFeeKernel.sizeClasses(batch, out, i, mediumAbove, largeAbove);
+    }
+}
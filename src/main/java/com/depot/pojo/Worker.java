@@ -1,45 +1,139 @@
 package com.depot.pojo;
 
 import com.depot.pojo.common.Customer;
+import com.depot.pojo.common.Dimension;
 import com.depot.pojo.common.Parcel;
 
 
 
 public class Worker {
-    private Customer currentCustomer;
-    private Parcel currentParcel;
+    // Indexed by size class, see Tariff.sizeClass
+    private static final String[] SIZE_CLASSES = {"小型包裹", "中型包裹", "大型包裹"};
     
+    // Batch kernel: the Vector API when the JVM runs with --add-modules jdk.incubator.vector and
+    // -Ddepot.vector is not false, otherwise plain loops with the same float operations
+    private static final FeeKernel KERNEL = loadKernel();
+    
+    // Each counter has its own worker; the GUI reads these from another thread
+    private volatile Customer currentCustomer;
+    private volatile Parcel currentParcel;
+    
+    // Fee under the current tariff, see TariffManager
     public float calculateFee(Parcel parcel) {
-        float baseFee = parcel.getWeight() * 0.5f;
-        
-        float volumeFee = parcel.getDimension().getLength() * 
-                         parcel.getDimension().getWidth() * 
-                         parcel.getDimension().getHeight() * 0.001f;
-        
-        float storageFee = parcel.getDays() * 1.0f;
-        
-        return baseFee + volumeFee + storageFee;
+        return calculateFee(parcel, TariffManager.getInstance().current());
+    }
+    
+    // Charged today by the parcel's own depot clock
+    public float calculateFee(Parcel parcel, Tariff tariff) {
+        return calculateFee(parcel, tariff, parcel.getClock().today());
+    }
+    
+    // As if charged on the given epoch day, whatever the depot clock says now
+    public float calculateFee(Parcel parcel, Tariff tariff, long day) {
+        Dimension dimension = parcel.getDimension();
+        return tariff.fee((int) (day - parcel.getArrivalDay()), parcel.getWeight(),
+            dimension.getLength(), dimension.getWidth(), dimension.getHeight());
+    }
+    
+    // Sum of calculateFee over every stored parcel, computed from the store's columns
+    public double calculateTotalFee(ParcelMap parcelMap) {
+        Tariff.FeeFunction function = TariffManager.getInstance().current().getFeeFunction();
+        double[] total = new double[1];
+        parcelMap.scan((days, weight, length, width, height) ->
+            total[0] += function.fee(days, weight, length, width, height));
+        return total[0];
+    }
+    
+    // calculateFee for every parcel of the batch in one pass; out[i] is the fee of parcel i
+    public void calculateFees(ParcelBatch batch, float[] out) {
+        if (out.length < batch.size()) {
+            throw new IllegalArgumentException("Output holds " + out.length + " of " + batch.size() + " fees");
+        }
+        Tariff tariff = TariffManager.getInstance().current();
+        if (tariff.isLinear()) {
+            KERNEL.fees(batch, out, tariff.getWeightRate(), tariff.getVolumeRate(), tariff.getDayRate());
+            return;
+        }
+        Tariff.FeeFunction function = tariff.getFeeFunction();
+        for (int i = 0; i < batch.size; i++) {
+            out[i] = function.fee(batch.days[i], batch.weights[i], batch.lengths[i], batch.widths[i], batch.heights[i]);
+        }
+    }
+    
+    public float[] calculateFees(ParcelBatch batch) {
+        float[] fees = new float[batch.size()];
+        calculateFees(batch, fees);
+        return fees;
+    }
+    
+    public float[] calculateFees(Parcel[] parcels) {
+        return calculateFees(ParcelBatch.of(parcels));
+    }
+    
+    // classifyParcel for every parcel of the batch, as size classes (see sizeClassName)
+    public void classifyParcels(ParcelBatch batch, int[] out) {
+        if (out.length < batch.size()) {
+            throw new IllegalArgumentException("Output holds " + out.length + " of " + batch.size() + " size classes");
+        }
+        Tariff tariff = TariffManager.getInstance().current();
+        KERNEL.sizeClasses(batch, out, tariff.getMediumAbove(), tariff.getLargeAbove());
+    }
+    
+    public String[] classifyParcels(Parcel[] parcels) {
+        ParcelBatch batch = ParcelBatch.of(parcels);
+        int[] sizeClasses = new int[batch.size()];
+        classifyParcels(batch, sizeClasses);
+        String[] names = new String[sizeClasses.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = sizeClassName(sizeClasses[i]);
+        }
+        return names;
+    }
+    
+    public static String sizeClassName(int sizeClass) {
+        return SIZE_CLASSES[sizeClass];
+    }
+    
+    public static boolean isVectorized() {
+        return !(KERNEL instanceof ScalarFeeKernel);
+    }
+    
+    private static FeeKernel loadKernel() {
+        if (Boolean.parseBoolean(System.getProperty("depot.vector", "true"))
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            // By name, so the incubator classes are only linked when the module is there
+            try {
+                return (FeeKernel) Class.forName("com.depot.pojo.VectorFeeKernel")
+                    .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                System.err.println("Vector API unavailable, using scalar fee kernel: " + e);
+            }
+        }
+        return new ScalarFeeKernel();
+    }
+    
+    // Returns the fee charged for the parcel
+    public float processCustomer(Customer customer, Parcel parcel) {
+        return processCustomer(customer, parcel, TariffManager.getInstance().current());
+    }
+    
+    public float processCustomer(Customer customer, Parcel parcel, Tariff tariff) {
+        return processCustomer(customer, parcel, tariff, parcel.getClock().today());
     }
     
-    public void processCustomer(Customer customer, Parcel parcel) {
+    public float processCustomer(Customer customer, Parcel parcel, Tariff tariff, long day) {
         this.currentCustomer = customer;
         this.currentParcel = parcel;
-        float fee = calculateFee(parcel);
+        float fee = calculateFee(parcel, tariff, day);
         customer.setFee(fee);
         
-        Log.getInstance().addLog(String.format(
-            "处理客户[%s]的包裹[%s], 费用: %.2f",
-            customer.getName(), parcel.getID(), fee));
+        Log.getInstance().addEvent(LogEventType.PARCEL_CHARGED,
+            parcel.getID(), customer.getSequenceNum(), fee, customer.getName());
+        return fee;
     }
     
     public String classifyParcel(Parcel parcel) {
-        float volume = parcel.getDimension().getLength() * 
-                      parcel.getDimension().getWidth() * 
-                      parcel.getDimension().getHeight();
-        
-        if (volume > 10000) return "大型包裹";
-        else if (volume > 5000) return "中型包裹";
-        else return "小型包裹";
+        return sizeClassName(TariffManager.getInstance().current().sizeClass(parcel.getSize()));
     }
     
     public Customer getCurrentCustomer() {
@@ -0,0 +1,113 @@
+package com.depot.pojo.common;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Thread-safe set of longs: LongHashSet segments chosen by the key's hash, each guarded by its
+// own monitor, so threads adding different keys rarely contend. Iteration copies one segment at
+// a time and never fails on concurrent changes.
+public class ConcurrentLongHashSet {
+    private final LongHashSet[] segments;
+    private final int segmentMask;
+    private final AtomicInteger size = new AtomicInteger();
+
+    public ConcurrentLongHashSet() {
+        this(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public ConcurrentLongHashSet(int concurrency) {
+        int count = Integer.highestOneBit(Math.max(1, Math.min(concurrency, 1 << 10)) * 2 - 1);
+        segments = new LongHashSet[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new LongHashSet();
+        }
+        segmentMask = count - 1;
+    }
+
+    public boolean contains(long key) {
+        LongHashSet segment = segmentOf(key);
+        synchronized (segment) {
+            return segment.contains(key);
+        }
+    }
+
+    // True when the key was not in the set yet; of several threads adding one key only one wins
+    public boolean add(long key) {
+        LongHashSet segment = segmentOf(key);
+        boolean added;
+        synchronized (segment) {
+            added = segment.add(key);
+        }
+        if (added) {
+            size.incrementAndGet();
+        }
+        return added;
+    }
+
+    public boolean remove(long key) {
+        LongHashSet segment = segmentOf(key);
+        boolean removed;
+        synchronized (segment) {
+            removed = segment.remove(key);
+        }
+        if (removed) {
+            size.decrementAndGet();
+        }
+        return removed;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        for (LongHashSet segment : segments) {
+            synchronized (segment) {
+                size.addAndGet(-segment.size());
+                segment.clear();
+            }
+        }
+    }
+
+    public PrimitiveIterator.OfLong iterator() {
+        return new PrimitiveIterator.OfLong() {
+            private int nextSegment;
+            private long[] keys = new long[0];
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == keys.length && nextSegment < segments.length) {
+                    LongHashSet segment = segments[nextSegment++];
+                    synchronized (segment) {
+                        keys = new long[segment.size()];
+                        PrimitiveIterator.OfLong segmentKeys = segment.iterator();
+                        for (int i = 0; i < keys.length; i++) {
+                            keys[i] = segmentKeys.nextLong();
+                        }
+                    }
+                    next = 0;
+                }
+                return next < keys.length;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return keys[next++];
+            }
+        };
+    }
+
+    private LongHashSet segmentOf(long key) {
+        // High bits, since each segment hashes the low bits of the same product
+        return segments[(int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & segmentMask];
+    }
+}
@@ -1,36 +1,53 @@
 package com.depot.pojo.common;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 public class Customer {
+    private static final long[] NO_PARCELS = new long[0];
+    
     private int sequenceNum;
     private String name;
-    private List<String> parcels;
+    // ParcelIdCodec codes in the order the parcels were added
+    private long[] parcels;
+    private int parcelCount;
     private float fee;
     
     public Customer(int sequenceNum, String name) {
         this.sequenceNum = sequenceNum;
         this.name = name;
-        this.parcels = new ArrayList<>();
+        this.parcels = NO_PARCELS;
         this.fee = 0.0f;
     }
     
     public void addParcel(String parcelId) {
-        parcels.add(parcelId);
+        if (parcelCount == parcels.length) {
+            parcels = Arrays.copyOf(parcels, Math.max(2, parcelCount * 2));
+        }
+        parcels[parcelCount++] = ParcelIdCodec.getInstance().encode(parcelId);
     }
     
     public String[] getParcels(int count) {
-        if (count == 0) {
-            return parcels.toArray(new String[0]);
-        }
-        String[] result = new String[Math.min(count, parcels.size())];
+        int length = count == 0 ? parcelCount : Math.min(count, parcelCount);
+        ParcelIdCodec codec = ParcelIdCodec.getInstance();
+        String[] result = new String[length];
         for (int i = 0; i < result.length; i++) {
-            result[i] = parcels.get(i);
+            result[i] = codec.decode(parcels[i]);
         }
         return result;
     }
     
+    public int getParcelCount() {
+        return parcelCount;
+    }
+    
+    // Code of the i-th parcel, without decoding it
+    public long getParcelCode(int index) {
+        if (index < 0 || index >= parcelCount) {
+            throw new IndexOutOfBoundsException("Parcel " + index + " of " + parcelCount);
+        }
+        return parcels[index];
+    }
+    
     // Getters and setters
     public int getSequenceNum() { return sequenceNum; }
     public String getName() { return name; }
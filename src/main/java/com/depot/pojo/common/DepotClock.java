@@ -0,0 +1,62 @@
+package com.depot.pojo.common;
+
+import java.time.LocalDate;
+
+// A depot's current date as an epoch day. Parcels store the day they arrived and derive their
+// storage days from their depot's clock, so advancing it ages every parcel at once without
+// touching any of them. Each Manager owns one; clocks start at today's date, or
+// -Ddepot.clock.date=yyyy-MM-dd.
+public class DepotClock {
+    // For parcels and parcel maps made outside a depot: starts like any other clock and never
+    // moves. A ParcelMap re-dates parcels from another clock onto its own when they are added.
+    public static final DepotClock FIXED = new DepotClock(initialDay(), true);
+
+    private final boolean fixed;
+    private volatile long today;
+
+    public DepotClock() {
+        this(initialDay(), false);
+    }
+
+    public DepotClock(long epochDay) {
+        this(epochDay, false);
+    }
+
+    private DepotClock(long epochDay, boolean fixed) {
+        this.today = epochDay;
+        this.fixed = fixed;
+    }
+
+    private static long initialDay() {
+        String date = System.getProperty("depot.clock.date");
+        return (date != null ? LocalDate.parse(date) : LocalDate.now()).toEpochDay();
+    }
+
+    public long today() {
+        return today;
+    }
+
+    public LocalDate getDate() {
+        return LocalDate.ofEpochDay(today);
+    }
+
+    public synchronized void advance(int days) {
+        checkMovable();
+        if (days < 0) {
+            throw new IllegalArgumentException("Cannot move the depot clock backwards: " + days);
+        }
+        today += days;
+    }
+
+    // Used when restoring a saved depot, which brings its own date along
+    public synchronized void set(long epochDay) {
+        checkMovable();
+        today = epochDay;
+    }
+
+    private void checkMovable() {
+        if (fixed) {
+            throw new IllegalStateException("The fixed depot clock cannot be moved");
+        }
+    }
+}
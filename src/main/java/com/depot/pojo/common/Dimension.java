@@ -1,10 +1,12 @@
 package com.depot.pojo.common;
 
 
+// Immutable: ParcelMap's indexes key parcels by volume, so a stored parcel's size never changes
+// in place. A resized parcel is a new Parcel with the same ID, added in place of the old one.
 public class Dimension {
-    private float length;
-    private float width;
-    private float height;
+    private final float length;
+    private final float width;
+    private final float height;
     
     public Dimension(float length, float width, float height) {
         this.length = length;
@@ -12,12 +14,7 @@ public class Dimension {
         this.height = height;
     }
     
-    // Getters and setters
     public float getLength() { return length; }
     public float getWidth() { return width; }
     public float getHeight() { return height; }
-    
-    public void setLength(float length) { this.length = length; }
-    public void setWidth(float width) { this.width = width; }
-    public void setHeight(float height) { this.height = height; }
 } 
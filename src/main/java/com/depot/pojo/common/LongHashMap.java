@@ -0,0 +1,114 @@
+package com.depot.pojo.common;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// long -> object map without boxed keys or entry objects, see LongKeyTable
+public class LongHashMap<V> extends LongKeyTable {
+    private Object[] values;
+    private final Collection<V> valuesView = new AbstractCollection<V>() {
+        @Override
+        public Iterator<V> iterator() {
+            return new Iterator<V>() {
+                private int next = nextIndex(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public V next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    V value = valueAt(next);
+                    next = nextIndex(next + 1);
+                    return value;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    };
+
+    public LongHashMap() {
+        this(16);
+    }
+
+    public LongHashMap(int expectedSize) {
+        super(expectedSize);
+        allocateValues(keys.length);
+    }
+
+    public V get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? null : valueAt(index);
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    // Returns the previous value, or null
+    public V put(long key, V value) {
+        int index = insert(key);
+        if (index < 0) {
+            values[~index] = value;
+            return null;
+        }
+        V previous = valueAt(index);
+        values[index] = value;
+        return previous;
+    }
+
+    public V remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V previous = valueAt(index);
+        removeAt(index);
+        return previous;
+    }
+
+    // Read-only live view
+    public Collection<V> values() {
+        return valuesView;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        return (V) values[index];
+    }
+
+    @Override
+    void allocateValues(int length) {
+        values = new Object[length];
+    }
+
+    @Override
+    Object valueArray() {
+        return values;
+    }
+
+    @Override
+    void copyValue(Object from, int fromIndex, int toIndex) {
+        values[toIndex] = ((Object[]) from)[fromIndex];
+    }
+
+    @Override
+    void moveValue(int fromIndex, int toIndex) {
+        values[toIndex] = values[fromIndex];
+    }
+
+    @Override
+    void clearValue(int index) {
+        values[index] = null;
+    }
+}
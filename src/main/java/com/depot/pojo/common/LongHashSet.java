@@ -0,0 +1,57 @@
+package com.depot.pojo.common;
+
+import java.util.PrimitiveIterator;
+
+// Set of longs without boxing, see LongKeyTable
+public class LongHashSet extends LongKeyTable {
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        super(expectedSize);
+    }
+
+    public boolean contains(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    // True when the key was not already present
+    public boolean add(long key) {
+        return insert(key) < 0;
+    }
+
+    public boolean remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    public PrimitiveIterator.OfLong iterator() {
+        return keyIterator();
+    }
+
+    @Override
+    void allocateValues(int length) {
+    }
+
+    @Override
+    Object valueArray() {
+        return null;
+    }
+
+    @Override
+    void copyValue(Object from, int fromIndex, int toIndex) {
+    }
+
+    @Override
+    void moveValue(int fromIndex, int toIndex) {
+    }
+
+    @Override
+    void clearValue(int index) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.depot.pojo.common;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+
+// long -> int map without boxing, see LongKeyTable. Lookups of absent keys return the
+// missing value given at construction.
+public class LongIntHashMap extends LongKeyTable {
+    private final int missingValue;
+    private int[] values;
+
+    public LongIntHashMap(int missingValue) {
+        this(16, missingValue);
+    }
+
+    public LongIntHashMap(int expectedSize, int missingValue) {
+        super(expectedSize);
+        this.missingValue = missingValue;
+        allocateValues(keys.length);
+    }
+
+    public int get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? missingValue : values[index];
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    // Returns the previous value, or the missing value
+    public int put(long key, int value) {
+        int index = insert(key);
+        if (index < 0) {
+            values[~index] = value;
+            return missingValue;
+        }
+        int previous = values[index];
+        values[index] = value;
+        return previous;
+    }
+
+    public int remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return missingValue;
+        }
+        int previous = values[index];
+        removeAt(index);
+        return previous;
+    }
+
+    public PrimitiveIterator.OfLong keys() {
+        return keyIterator();
+    }
+
+    @Override
+    void allocateValues(int length) {
+        values = new int[length];
+        Arrays.fill(values, missingValue);
+    }
+
+    @Override
+    Object valueArray() {
+        return values;
+    }
+
+    @Override
+    void copyValue(Object from, int fromIndex, int toIndex) {
+        values[toIndex] = ((int[]) from)[fromIndex];
+    }
+
+    @Override
+    void moveValue(int fromIndex, int toIndex) {
+        values[toIndex] = values[fromIndex];
+    }
+
+    @Override
+    void clearValue(int index) {
+        values[index] = missingValue;
+    }
+}
@@ -0,0 +1,186 @@
+package com.depot.pojo.common;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+// Open-addressing table of long keys shared by LongHashSet, LongHashMap and LongIntHashMap:
+// linear probing, at most half full, backward-shift deletion so no tombstones build up. Key 0
+// marks a free entry, so key 0 itself is kept at index capacity (one past the table). Subclasses
+// keep any values in parallel arrays of capacity + 1 and move them along with their keys.
+abstract class LongKeyTable {
+    long[] keys;
+    int mask;
+    boolean hasZero;
+    int size;
+
+    LongKeyTable(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2L && capacity < 1 << 30) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity + 1];
+        mask = capacity - 1;
+    }
+
+    // Value storage for a new table, and copying one entry's value from the old one
+    abstract void allocateValues(int length);
+
+    abstract Object valueArray();
+
+    abstract void copyValue(Object from, int fromIndex, int toIndex);
+
+    abstract void moveValue(int fromIndex, int toIndex);
+
+    abstract void clearValue(int index);
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        hasZero = false;
+        size = 0;
+        allocateValues(keys.length);
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // Index holding the key, or -1
+    final int indexOf(long key) {
+        if (key == 0) {
+            return hasZero ? mask + 1 : -1;
+        }
+        int i = mix(key) & mask;
+        long k;
+        while ((k = keys[i]) != 0) {
+            if (k == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Index holding the key when present, otherwise ~index of the entry just claimed for it
+    final int insert(long key) {
+        if (key == 0) {
+            if (hasZero) {
+                return mask + 1;
+            }
+            hasZero = true;
+            size++;
+            return ~(mask + 1);
+        }
+        int i = mix(key) & mask;
+        long k;
+        while ((k = keys[i]) != 0) {
+            if (k == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        if ((size + 1) * 2L > mask + 1) {
+            rehash((mask + 1) * 2);
+            i = mix(key) & mask;
+            while (keys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+        }
+        keys[i] = key;
+        size++;
+        return ~i;
+    }
+
+    final void removeAt(int index) {
+        size--;
+        if (index == mask + 1) {
+            hasZero = false;
+            clearValue(index);
+            return;
+        }
+        int hole = index;
+        int i = (hole + 1) & mask;
+        long k;
+        while ((k = keys[i]) != 0) {
+            // Shift the entry back unless its home lies in (hole, i]
+            int home = mix(k) & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = k;
+                moveValue(i, hole);
+                hole = i;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[hole] = 0;
+        clearValue(hole);
+    }
+
+    // First occupied index at or after from, or -1 past the last one; entries must not be
+    // added or removed while walking
+    final int nextIndex(int from) {
+        for (int i = from; i <= mask; i++) {
+            if (keys[i] != 0) {
+                return i;
+            }
+        }
+        return from <= mask + 1 && hasZero ? mask + 1 : -1;
+    }
+
+    // Entries must not be added or removed while iterating
+    final PrimitiveIterator.OfLong keyIterator() {
+        return new PrimitiveIterator.OfLong() {
+            private int next = nextIndex(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public long nextLong() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                long key = keyAt(next);
+                next = nextIndex(next + 1);
+                return key;
+            }
+        };
+    }
+
+    final long keyAt(int index) {
+        return index == mask + 1 ? 0 : keys[index];
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object oldValues = valueArray();
+        int oldZero = mask + 1;
+        keys = new long[capacity + 1];
+        mask = capacity - 1;
+        allocateValues(capacity + 1);
+        for (int j = 0; j < oldZero; j++) {
+            long k = oldKeys[j];
+            if (k != 0) {
+                int i = mix(k) & mask;
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+                copyValue(oldValues, j, i);
+            }
+        }
+        if (hasZero) {
+            copyValue(oldValues, oldZero, mask + 1);
+        }
+    }
+}
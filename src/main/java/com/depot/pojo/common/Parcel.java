@@ -2,24 +2,56 @@ package com.depot.pojo.common;
 
 public class Parcel {
     private String ID;
-    private int days;
+    // Epoch day of arrival; storage days are derived from the clock
+    private DepotClock clock;
+    private long arrivalDay;
     private float weight;
     private Dimension dimension;
     
+    // Stored for the given days as of today on DepotClock.FIXED
     public Parcel(String ID, int days, float weight, Dimension dimension) {
+        this(DepotClock.FIXED, ID, days, weight, dimension);
+    }
+    
+    // Stored for the given days as of the clock's date
+    public Parcel(DepotClock clock, String ID, int days, float weight, Dimension dimension) {
+        this(ID, clock, clock.today() - days, weight, dimension);
+    }
+    
+    private Parcel(String ID, DepotClock clock, long arrivalDay, float weight, Dimension dimension) {
         this.ID = ID;
-        this.days = days;
+        this.clock = clock;
+        this.arrivalDay = arrivalDay;
         this.weight = weight;
         this.dimension = dimension;
     }
     
+    // For flyweight views that override every getter (see ColumnarParcelStore)
+    protected Parcel() {
+    }
+    
+    public static Parcel arrived(DepotClock clock, String ID, long arrivalDay, float weight, Dimension dimension) {
+        return new Parcel(ID, clock, arrivalDay, weight, dimension);
+    }
+    
+    // This parcel when it is on the clock already, otherwise a copy stored as many days as of
+    // that clock's date
+    public Parcel onClock(DepotClock other) {
+        if (getClock() == other) {
+            return this;
+        }
+        return arrived(other, getID(), other.today() - getDays(), getWeight(), getDimension());
+    }
+    
     public float getSize() {
         return dimension.getLength() * dimension.getWidth() * dimension.getHeight();
     }
     
     // Other getters and setters
     public String getID() { return ID; }
-    public int getDays() { return days; }
+    public int getDays() { return (int) (clock.today() - arrivalDay); }
+    public long getArrivalDay() { return arrivalDay; }
+    public DepotClock getClock() { return clock; }
     public float getWeight() { return weight; }
     public Dimension getDimension() { return dimension; }
 } 
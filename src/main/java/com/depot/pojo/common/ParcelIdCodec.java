@@ -0,0 +1,118 @@
+package com.depot.pojo.common;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Parcel IDs as longs. IDs of the usual shape - one ASCII letter and 1 to 15 digits, e.g. X009 -
+// are packed into the code itself: letter in bits 54-59, digit count (kept so leading zeros
+// survive) in bits 50-53, numeric value in bits 0-49. Any other ID is interned in a dictionary
+// and coded as its index with the sign bit set. Equal IDs always get equal codes, so code
+// comparisons replace string hashing and equals; decode gives the original string back.
+public class ParcelIdCodec {
+    // Never produced by encode
+    public static final long NO_ID = -1L;
+
+    private static final int MAX_DIGITS = 15;
+    private static final long DICTIONARY_BIT = Long.MIN_VALUE;
+
+    // Interned non-conforming IDs; compact codes never touch these or the lock
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private String[] interned = new String[16];
+
+    private static class Holder {
+        private static final ParcelIdCodec INSTANCE = new ParcelIdCodec();
+    }
+
+    private ParcelIdCodec() {
+    }
+
+    public static ParcelIdCodec getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    // Code for the ID, interning it when it does not have the compact shape
+    public long encode(String id) {
+        long code = compact(id);
+        if (code != NO_ID) {
+            return code;
+        }
+        synchronized (dictionary) {
+            Integer index = dictionary.get(id);
+            if (index == null) {
+                index = dictionary.size();
+                if (index == interned.length) {
+                    interned = Arrays.copyOf(interned, index * 2);
+                }
+                interned[index] = id;
+                dictionary.put(id, index);
+            }
+            return DICTIONARY_BIT | index;
+        }
+    }
+
+    // Code for the ID without interning: NO_ID for an ID that was never encoded, so lookups of
+    // unknown IDs do not grow the dictionary
+    public long lookup(String id) {
+        long code = compact(id);
+        if (code != NO_ID) {
+            return code;
+        }
+        synchronized (dictionary) {
+            Integer index = dictionary.get(id);
+            return index == null ? NO_ID : DICTIONARY_BIT | index;
+        }
+    }
+
+    public String decode(long code) {
+        if (code < 0) {
+            synchronized (dictionary) {
+                int index = (int) (code & ~DICTIONARY_BIT);
+                if (code == NO_ID || index >= dictionary.size()) {
+                    throw new IllegalArgumentException("Unknown parcel ID code: " + Long.toHexString(code));
+                }
+                return interned[index];
+            }
+        }
+        int letter = (int) (code >>> 54);
+        int digits = (int) (code >>> 50) & 0xF;
+        long value = code & ((1L << 50) - 1);
+        char[] chars = new char[digits + 1];
+        chars[0] = (char) (letter < 26 ? 'A' + letter : 'a' + letter - 26);
+        for (int i = digits; i > 0; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return new String(chars);
+    }
+
+    // True when the code holds the ID itself rather than a dictionary index
+    public static boolean isCompact(long code) {
+        return code >= 0;
+    }
+
+    private static long compact(String id) {
+        int length = id.length();
+        if (length < 2 || length > MAX_DIGITS + 1) {
+            return NO_ID;
+        }
+        char first = id.charAt(0);
+        int letter;
+        if (first >= 'A' && first <= 'Z') {
+            letter = first - 'A';
+        } else if (first >= 'a' && first <= 'z') {
+            letter = first - 'a' + 26;
+        } else {
+            return NO_ID;
+        }
+        long value = 0;
+        for (int i = 1; i < length; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return NO_ID;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return (long) letter << 54 | (long) (length - 1) << 50 | value;
+    }
+}